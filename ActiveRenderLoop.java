@@ -0,0 +1,115 @@
+import java.awt.Canvas;
+import java.awt.Graphics;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+// game loop on its own thread that page-flips a Canvas through a BufferStrategy
+// updates run at a fixed timestep, frames are drawn as often as the frame cap allows and
+// get the fraction of a tick that has passed so movement can be interpolated between ticks
+public class ActiveRenderLoop implements Runnable {
+    private static final int MAX_CATCH_UP_TICKS = 5; // after a long stall, drop time instead of running a burst of ticks
+    private static final long SPIN_NANOS = 1_000_000; // spin the last millisecond before a frame, parking is too coarse
+
+    // what the loop drives
+    public interface Game {
+        void update(); // one fixed tick
+        void render(Graphics g, double alpha); // alpha is how far (0 to 1) we are into the next tick
+    }
+
+    private final Canvas canvas;
+    private final Game game;
+    private final long tickNanos;
+    private final long frameNanos; // 0 when uncapped
+    private volatile boolean running;
+    private Thread thread;
+
+    // fpsCap of 0 or less draws frames as fast as the machine can
+    public ActiveRenderLoop(Canvas canvas, Game game, int tickMillis, int fpsCap) {
+        this.canvas = canvas;
+        this.game = game;
+        this.tickNanos = tickMillis * 1_000_000L;
+        this.frameNanos = fpsCap > 0 ? 1_000_000_000L / fpsCap : 0;
+    }
+
+    // the canvas has to be displayable (its window shown) before this is called
+    public void start() {
+        canvas.setIgnoreRepaint(true); // we paint it ourselves, don't let the EDT paint it too
+        canvas.createBufferStrategy(2);
+        running = true;
+        thread = new Thread(this, "shape-shooter-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // stops the loop and waits for the frame in progress to finish
+    public void stop() {
+        running = false;
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        BufferStrategy strategy = canvas.getBufferStrategy();
+        long previous = System.nanoTime();
+        long lag = 0;
+        long nextFrame = previous;
+        while (running) {
+            long now = System.nanoTime();
+            lag += now - previous;
+            previous = now;
+
+            int ticks = 0;
+            while (lag >= tickNanos && ticks < MAX_CATCH_UP_TICKS) {
+                game.update();
+                lag -= tickNanos;
+                ticks++;
+            }
+            if (ticks == MAX_CATCH_UP_TICKS && lag >= tickNanos) {
+                lag = 0; // we fell too far behind, skip ahead rather than spiral
+            }
+
+            renderFrame(strategy, (double) lag / tickNanos);
+
+            if (frameNanos > 0) {
+                nextFrame += frameNanos;
+                long wait = nextFrame - System.nanoTime();
+                if (wait < -frameNanos) {
+                    nextFrame = System.nanoTime(); // missed a whole frame, start counting again from now
+                }
+                waitUntil(nextFrame);
+            }
+        }
+    }
+
+    private void renderFrame(BufferStrategy strategy, double alpha) {
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    game.render(g, alpha);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+            Toolkit.getDefaultToolkit().sync(); // flush the pipeline so the frame shows up now on X11
+        } while (strategy.contentsLost());
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > SPIN_NANOS) {
+            LockSupport.parkNanos(remaining - SPIN_NANOS);
+        }
+        while (deadline - System.nanoTime() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+import java.util.concurrent.RecursiveAction;
+
+// fork/join task that splits a range of slots in half until each piece is at most chunkSize,
+// then runs the body on every piece; pieces never overlap, so bodies can write their own slots freely
+public class ChunkedAction extends RecursiveAction {
+
+    // work for one piece of the range, from inclusive and to exclusive
+    public interface Body {
+        void run(int from, int to);
+    }
+
+    private final int from;
+    private final int to;
+    private final int chunkSize;
+    private final Body body;
+
+    public ChunkedAction(int from, int to, int chunkSize, Body body) {
+        this.from = from;
+        this.to = to;
+        this.chunkSize = chunkSize;
+        this.body = body;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= chunkSize) {
+            body.run(from, to);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new ChunkedAction(from, middle, chunkSize, body), new ChunkedAction(middle, to, chunkSize, body));
+    }
+}
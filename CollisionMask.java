@@ -0,0 +1,106 @@
+import java.awt.image.BufferedImage;
+
+// which pixels of a sprite are solid, one bit per pixel packed into long rows
+// built once from a sprite's alpha channel; two masks are tested against each other 64 pixels
+// at a time with a shift and an AND, so a hit costs a few word operations per overlapping row
+public class CollisionMask {
+    public static final int ALPHA_THRESHOLD = 128; // pixels at least half opaque count as solid
+
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    private final long[] bits; // row after row, bit c of a row's words is column c, columns past width are 0
+
+    private CollisionMask(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) / 64;
+        this.bits = new long[wordsPerRow * height];
+    }
+
+    // solid wherever the image's alpha reaches the threshold
+    public static CollisionMask fromAlpha(BufferedImage image) {
+        CollisionMask mask = new CollisionMask(image.getWidth(), image.getHeight());
+        int[] row = new int[mask.width];
+        for (int y = 0; y < mask.height; y++) {
+            image.getRGB(0, y, mask.width, 1, row, 0, mask.width);
+            for (int x = 0; x < mask.width; x++) {
+                if ((row[x] >>> 24) >= ALPHA_THRESHOLD) {
+                    mask.bits[y * mask.wordsPerRow + (x >>> 6)] |= 1L << x;
+                }
+            }
+        }
+        return mask;
+    }
+
+    // a mask that is solid everywhere, for things drawn as filled boxes
+    public static CollisionMask solid(int width, int height) {
+        CollisionMask mask = new CollisionMask(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                mask.bits[y * mask.wordsPerRow + (x >>> 6)] |= 1L << x;
+            }
+        }
+        return mask;
+    }
+
+    // true when a solid pixel of this mask at (x, y) covers a solid pixel of other at (otherX, otherY)
+    public boolean overlaps(int x, int y, CollisionMask other, int otherX, int otherY) {
+        int dx = otherX - x;
+        int dy = otherY - y;
+        int firstRow = Math.max(0, dy);
+        int lastRow = Math.min(height, dy + other.height) - 1;
+        int firstColumn = Math.max(0, dx);
+        int lastColumn = Math.min(width, dx + other.width) - 1;
+        if (firstRow > lastRow || firstColumn > lastColumn) {
+            return false;
+        }
+        int firstWord = firstColumn >>> 6;
+        int lastWord = lastColumn >>> 6;
+        for (int row = firstRow; row <= lastRow; row++) {
+            int base = row * wordsPerRow;
+            for (int word = firstWord; word <= lastWord; word++) {
+                // other's bits lined up with this word; anything outside other reads as empty
+                if ((bits[base + word] & other.bitsAt(row - dy, word * 64 - dx)) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // 64 bits of a row starting at column start, which may be negative or past the edge
+    private long bitsAt(int row, int start) {
+        if (start >= width || start <= -64) {
+            return 0;
+        }
+        int word = Math.floorDiv(start, 64);
+        int shift = Math.floorMod(start, 64);
+        long value = wordAt(row, word) >>> shift;
+        if (shift != 0) {
+            value |= wordAt(row, word + 1) << (64 - shift);
+        }
+        return value;
+    }
+
+    private long wordAt(int row, int word) {
+        return word >= 0 && word < wordsPerRow ? bits[row * wordsPerRow + word] : 0;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // number of solid pixels
+    public int count() {
+        int total = 0;
+        for (long word : bits) {
+            total += Long.bitCount(word);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,111 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+// plays seeded shape shooter sessions headless and checks that nothing but the seed and the input
+// decides how they go: every session runs on a serial engine and on one that splits every tick over a
+// fork/join pool, and their state hashes must agree after every tick; the parallel session is also
+// recorded and the recording replayed, which must end on the same ticks, score, level and state
+// the sessions cover the normal spawn rate and a full row every tick, with box and pixel collision
+// the exit status is 1 when any session differs, so it can gate a build
+// usage: java DeterminismCheck [ticks]
+public class DeterminismCheck {
+    private static final long[] SEEDS = {1, 42, 2024};
+    private static final int WORKERS = 4; // more than one, or setParallel() keeps ticks serial
+    private static final int PARALLEL_THRESHOLD = 0; // every tick takes the parallel path
+
+    static {
+        // the pixel masks come from the sprites, and no display is ever looked for
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    // spawn settings a session runs with
+    private static final class Density {
+        final String name;
+        final double spawnChance;
+        final int waveSize;
+
+        Density(String name, double spawnChance, int waveSize) {
+            this.name = name;
+            this.spawnChance = spawnChance;
+            this.waveSize = waveSize;
+        }
+    }
+
+    private static final Density[] DENSITIES = {
+            new Density("normal", 0.02, 1),
+            new Density("full", 1.0, 25), // a full row every tick, as in the batch runner's stress runs
+    };
+
+    public static void main(String[] args) throws IOException {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 1500;
+        CollisionMask[] masks = SpriteAtlas.load(null, ShapeShooterEngine.OBSTACLE_WIDTH, ShapeShooterEngine.OBSTACLE_HEIGHT,
+                ShapeShooterEngine.PLAYER_WIDTH, ShapeShooterEngine.PLAYER_HEIGHT).getShapeMasks();
+        ForkJoinPool pool = new ForkJoinPool(WORKERS);
+        int runs = 0;
+        int failed = 0;
+        try {
+            for (Density density : DENSITIES) {
+                for (CollisionMask[] sessionMasks : new CollisionMask[][] {null, masks}) {
+                    for (long seed : SEEDS) {
+                        String name = "seed " + seed + ", " + density.name + " density, "
+                                + (sessionMasks != null ? "pixel" : "box") + " collision";
+                        runs++;
+                        if (!check(name, seed, ticks, density, sessionMasks, pool)) {
+                            failed++;
+                        }
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        System.out.println((runs - failed) + " of " + runs + " sessions are deterministic");
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    // plays one session serially, in parallel and from its recording; false and a message when they differ
+    private static boolean check(String name, long seed, int ticks, Density density, CollisionMask[] masks,
+                                 ForkJoinPool pool) throws IOException {
+        ShapeShooterEngine serial = newEngine(seed, density, masks);
+        ShapeShooterEngine parallel = newEngine(seed, density, masks);
+        parallel.setParallel(pool, PARALLEL_THRESHOLD);
+        ShooterRecorder recorder = new ShooterRecorder(parallel);
+        ShapeShooterBatchRunner.Bot bot = new ShapeShooterBatchRunner.Bot();
+        for (int i = 0; i < ticks && !serial.isGameOver(); i++) {
+            int input = bot.play(serial);
+            recorder.recordTick(input);
+            serial.tick(input);
+            parallel.tick(input);
+            if (serial.stateHash() != parallel.stateHash()) {
+                System.out.println(name + ": MISMATCH serial and parallel ticks differ after tick " + serial.getTickCount()
+                        + ", state " + Long.toHexString(serial.stateHash()) + "/" + Long.toHexString(parallel.stateHash()));
+                return false;
+            }
+        }
+
+        ByteArrayOutputStream recording = new ByteArrayOutputStream();
+        recorder.write(recording, parallel);
+        ShooterReplayer.Result result = ShooterReplayer.replay(new ByteArrayInputStream(recording.toByteArray()));
+        if (!result.matches() || result.hash != serial.stateHash()) {
+            System.out.println(name + ": MISMATCH replay ticks " + result.ticks + "/" + result.expectedTicks
+                    + ", score " + result.score + "/" + result.expectedScore
+                    + ", level " + result.level + "/" + result.expectedLevel
+                    + ", state " + Long.toHexString(result.hash) + "/" + Long.toHexString(result.expectedHash));
+            return false;
+        }
+        System.out.println(name + ": ok, " + serial.getTickCount() + " ticks, score " + serial.getScore()
+                + ", " + serial.getObstacles().size() + " obstacles at the end");
+        return true;
+    }
+
+    private static ShapeShooterEngine newEngine(long seed, Density density, CollisionMask[] masks) {
+        ShapeShooterEngine engine = new ShapeShooterEngine(seed, ShapeShooterBatchRunner.SILENT);
+        engine.getSpawner().setDensity(density.spawnChance, density.waveSize);
+        engine.setObstacleMasks(masks);
+        return engine;
+    }
+}
@@ -0,0 +1,121 @@
+import javax.swing.JComponent;
+
+// remembers which parts of a panel changed since the last frame and repaints only those
+// changes are marked on a grid of tiles; at flush time runs of dirty tiles are merged into a few
+// rectangles and each one is painted straight away, so Swing does not union them into one big repaint
+public class DirtyRegionTracker {
+    private static final int MAX_RECTANGLES = 12; // past this, one bounding repaint is cheaper than many small ones
+
+    private final int tileSize;
+    private final int columns;
+    private final int rows;
+    private final long[] rowBits; // one bit per tile column
+    private boolean allDirty = false;
+
+    // rectangles in tile units, reused every flush
+    private final int[] rectLeft = new int[MAX_RECTANGLES];
+    private final int[] rectRight = new int[MAX_RECTANGLES];
+    private final int[] rectTop = new int[MAX_RECTANGLES];
+    private final int[] rectBottom = new int[MAX_RECTANGLES];
+    private int rectCount;
+
+    public DirtyRegionTracker(int width, int height, int tileSize) {
+        this.tileSize = tileSize;
+        this.columns = (width + tileSize - 1) / tileSize;
+        this.rows = (height + tileSize - 1) / tileSize;
+        if (columns > 64) {
+            throw new IllegalArgumentException("at most 64 tile columns, use bigger tiles");
+        }
+        rowBits = new long[rows];
+    }
+
+    // marks a box in panel pixels, parts outside the panel are ignored
+    public void mark(int x, int y, int width, int height) {
+        int firstColumn = Math.max(0, Math.floorDiv(x, tileSize));
+        int lastColumn = Math.min(columns - 1, Math.floorDiv(x + width - 1, tileSize));
+        int firstRow = Math.max(0, Math.floorDiv(y, tileSize));
+        int lastRow = Math.min(rows - 1, Math.floorDiv(y + height - 1, tileSize));
+        if (firstColumn > lastColumn || firstRow > lastRow) {
+            return;
+        }
+        long bits = (-1L >>> (63 - lastColumn + firstColumn)) << firstColumn;
+        for (int row = firstRow; row <= lastRow; row++) {
+            rowBits[row] |= bits;
+        }
+    }
+
+    public void markAll() {
+        allDirty = true;
+    }
+
+    // paints everything marked since the last flush and clears the marks
+    public void flush(JComponent component) {
+        if (allDirty) {
+            component.paintImmediately(0, 0, component.getWidth(), component.getHeight());
+        } else if (buildRectangles()) {
+            for (int i = 0; i < rectCount; i++) {
+                component.paintImmediately(rectLeft[i] * tileSize, rectTop[i] * tileSize,
+                        (rectRight[i] - rectLeft[i] + 1) * tileSize, (rectBottom[i] - rectTop[i] + 1) * tileSize);
+            }
+        } else {
+            paintBounds(component);
+        }
+        allDirty = false;
+        for (int row = 0; row < rows; row++) {
+            rowBits[row] = 0;
+        }
+    }
+
+    // turns each row's runs of dirty tiles into rectangles, stacking a run onto the one above when it
+    // covers the same columns; false when there would be too many rectangles
+    private boolean buildRectangles() {
+        rectCount = 0;
+        for (int row = 0; row < rows; row++) {
+            long bits = rowBits[row];
+            while (bits != 0) {
+                int left = Long.numberOfTrailingZeros(bits);
+                int right = left + Long.numberOfTrailingZeros(~(bits >>> left)) - 1;
+                bits &= right == 63 ? 0 : -1L << (right + 1);
+
+                int extend = -1;
+                for (int i = 0; i < rectCount; i++) {
+                    if (rectBottom[i] == row - 1 && rectLeft[i] == left && rectRight[i] == right) {
+                        extend = i;
+                        break;
+                    }
+                }
+                if (extend >= 0) {
+                    rectBottom[extend] = row;
+                } else if (rectCount == MAX_RECTANGLES) {
+                    return false;
+                } else {
+                    rectLeft[rectCount] = left;
+                    rectRight[rectCount] = right;
+                    rectTop[rectCount] = row;
+                    rectBottom[rectCount] = row;
+                    rectCount++;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void paintBounds(JComponent component) {
+        long columnsUsed = 0;
+        int top = -1;
+        int bottom = -1;
+        for (int row = 0; row < rows; row++) {
+            if (rowBits[row] != 0) {
+                columnsUsed |= rowBits[row];
+                if (top < 0) {
+                    top = row;
+                }
+                bottom = row;
+            }
+        }
+        int left = Long.numberOfTrailingZeros(columnsUsed);
+        int right = 63 - Long.numberOfLeadingZeros(columnsUsed);
+        component.paintImmediately(left * tileSize, top * tileSize,
+                (right - left + 1) * tileSize, (bottom - top + 1) * tileSize);
+    }
+}
@@ -0,0 +1,259 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// turns arithmetic text such as "(3 + 4) * -2 / 0.5" into a tree of evaluators that can be run again
+// and again without parsing; + - * / with the usual precedence, brackets, unary minus and decimals
+// compiled questions are kept in a least recently used cache keyed by their text, so a question that
+// comes round again, or is checked by many players, is parsed once; the cache is safe to share
+// between threads
+public class ExpressionCompiler {
+    public static final double TOLERANCE = 1e-9; // relative, so large and small answers are treated alike
+
+    // a compiled expression
+    public interface Evaluator {
+        double evaluate();
+    }
+
+    private static final class Constant implements Evaluator {
+        private final double value;
+
+        Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double evaluate() {
+            return value;
+        }
+    }
+
+    private static final class Negate implements Evaluator {
+        private final Evaluator operand;
+
+        Negate(Evaluator operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public double evaluate() {
+            return -operand.evaluate();
+        }
+    }
+
+    private static final class Binary implements Evaluator {
+        private final char op;
+        private final Evaluator left;
+        private final Evaluator right;
+
+        Binary(char op, Evaluator left, Evaluator right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public double evaluate() {
+            double a = left.evaluate();
+            double b = right.evaluate();
+            switch (op) {
+                case '+':
+                    return a + b;
+                case '-':
+                    return a - b;
+                case '*':
+                    return a * b;
+                default:
+                    return a / b;
+            }
+        }
+    }
+
+    private final Map<String, Evaluator> cache;
+    private long hits = 0;
+    private long misses = 0;
+
+    public ExpressionCompiler(int capacity) {
+        this.cache = new LinkedHashMap<String, Evaluator>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Evaluator> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // the compiled expression, from the cache when this text was compiled before
+    public Evaluator compile(String text) {
+        synchronized (cache) {
+            Evaluator evaluator = cache.get(text);
+            if (evaluator != null) {
+                hits++;
+                return evaluator;
+            }
+            misses++;
+        }
+        Evaluator evaluator = parse(text); // outside the lock, two threads may both parse a new text
+        synchronized (cache) {
+            cache.put(text, evaluator);
+        }
+        return evaluator;
+    }
+
+    // value of the text, using the cache
+    public double evaluate(String text) {
+        return compile(text).evaluate();
+    }
+
+    // whether a typed answer means the expected number: "4", " 04", "4.0" and "2+2" all mean 4
+    // typed answers are parsed without the cache so players can't fill it with junk
+    public static boolean matches(String typed, double expected) {
+        double value;
+        try {
+            value = parse(typed).evaluate();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return Math.abs(value - expected) <= TOLERANCE * Math.max(1, Math.abs(expected));
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getHits() {
+        synchronized (cache) {
+            return hits;
+        }
+    }
+
+    public long getMisses() {
+        synchronized (cache) {
+            return misses;
+        }
+    }
+
+    // compiles without the cache; throws IllegalArgumentException saying where the text went wrong
+    public static Evaluator parse(String text) {
+        Parser parser = new Parser(text);
+        Evaluator evaluator = parser.sum();
+        parser.skipSpaces();
+        if (parser.pos < text.length()) {
+            throw parser.error("unexpected '" + text.charAt(parser.pos) + "'");
+        }
+        return evaluator;
+    }
+
+    // recursive descent: sum = product (('+' | '-') product)*, product = unary (('*' | '/') unary)*,
+    // unary = '-' unary | '+' unary | number | '(' sum ')'
+    // the tree is walked recursively, when parsing and when evaluating, so how deep it goes is capped:
+    // every bracket, sign and operator in a chain takes a level, past MAX_DEPTH the text is rejected
+    // instead of overflowing the stack
+    private static final class Parser {
+        private static final int MAX_DEPTH = 200;
+        private final String text;
+        private int pos = 0;
+        private int depth = 0;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Evaluator sum() {
+            int outer = depth;
+            Evaluator left = product();
+            while (true) {
+                char op = peek();
+                if (op != '+' && op != '-') {
+                    depth = outer;
+                    return left;
+                }
+                pos++;
+                enter(); // each operator puts the chain so far one level further down the tree
+                left = new Binary(op, left, product());
+            }
+        }
+
+        Evaluator product() {
+            int outer = depth;
+            Evaluator left = unary();
+            while (true) {
+                char op = peek();
+                if (op != '*' && op != '/') {
+                    depth = outer;
+                    return left;
+                }
+                pos++;
+                enter();
+                left = new Binary(op, left, unary());
+            }
+        }
+
+        Evaluator unary() {
+            char c = peek();
+            if (c == '-') {
+                pos++;
+                enter();
+                Evaluator negated = new Negate(unary());
+                depth--;
+                return negated;
+            }
+            if (c == '+') {
+                pos++;
+                enter();
+                Evaluator operand = unary();
+                depth--;
+                return operand;
+            }
+            if (c == '(') {
+                pos++;
+                enter();
+                Evaluator inner = sum();
+                if (peek() != ')') {
+                    throw error("missing ')'");
+                }
+                pos++;
+                depth--;
+                return inner;
+            }
+            return number();
+        }
+
+        void enter() {
+            if (++depth > MAX_DEPTH) {
+                throw error("too deeply nested");
+            }
+        }
+
+        Evaluator number() {
+            int start = pos;
+            while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error(pos < text.length() ? "unexpected '" + text.charAt(pos) + "'" : "unexpected end");
+            }
+            try {
+                return new Constant(Double.parseDouble(text.substring(start, pos)));
+            } catch (NumberFormatException e) {
+                throw error("bad number " + text.substring(start, pos));
+            }
+        }
+
+        // next character that isn't a space, without taking it; 0 at the end
+        char peek() {
+            skipSpaces();
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+
+        void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at " + pos + " in \"" + text + "\"");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// one frame of one of the games, shows up in a Flight Recorder recording next to GC and JIT events
+// start a recording with -XX:StartFlightRecording and look for "Game Frame" under the Games category
+@Name("games.Frame")
+@Label("Game Frame")
+@Category("Games")
+@Description("Update and paint cost of one frame")
+public class FrameEvent extends Event {
+    @Label("Game")
+    String game;
+
+    @Label("Update Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long updateNanos;
+
+    @Label("Paint Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long paintNanos;
+
+    @Label("Frame Interval")
+    @Timespan(Timespan.NANOSECONDS)
+    long intervalNanos;
+
+    @Label("Live Objects")
+    int liveObjects;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
@@ -0,0 +1,197 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import jdk.jfr.EventType;
+
+// per-frame timing for the games: update time, paint time, frame interval, live objects and bytes allocated
+// every frame goes into histograms (for the p50/p99/max overlay), a ring of recent frames (for CSV export)
+// and a FrameEvent (for Flight Recorder); recording a frame does not allocate
+public class FrameStats {
+    private static final int HISTORY = 36_000; // frames kept for CSV export, five minutes at 120 fps
+    private static final long OVERLAY_REFRESH_NANOS = 500_000_000L; // overlay text is rebuilt twice a second
+    private static final Font OVERLAY_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+    private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 180);
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+    private static final EventType FRAME_EVENT = EventType.getEventType(FrameEvent.class); // asked before an event is made
+
+    private final String game;
+    private final LatencyHistogram updateTimes = new LatencyHistogram();
+    private final LatencyHistogram paintTimes = new LatencyHistogram();
+    private final LatencyHistogram frameIntervals = new LatencyHistogram();
+    private final LatencyHistogram liveObjects = new LatencyHistogram();
+    private final LatencyHistogram allocations = new LatencyHistogram();
+
+    private final long[] historyUpdate = new long[HISTORY];
+    private final long[] historyPaint = new long[HISTORY];
+    private final long[] historyInterval = new long[HISTORY];
+    private final int[] historyLive = new int[HISTORY];
+    private final long[] historyAllocated = new long[HISTORY];
+    private long frames = 0;
+
+    private long updateStart;
+    private long pendingUpdateNanos; // all ticks since the last frame, a frame can follow several ticks
+    private long paintStart;
+    private long pendingPaintNanos;
+    private long lastFrameEnd = 0;
+    private long lastAllocated = -1;
+
+    private volatile boolean overlayVisible = false;
+    private String[] overlayLines = new String[0];
+    private long overlayBuiltAt = 0;
+
+    public FrameStats(String game) {
+        this.game = game;
+    }
+
+    public void startUpdate() {
+        updateStart = System.nanoTime();
+    }
+
+    public void endUpdate() {
+        pendingUpdateNanos += System.nanoTime() - updateStart;
+    }
+
+    public void startPaint() {
+        paintStart = System.nanoTime();
+    }
+
+    public void endPaint() {
+        pendingPaintNanos += System.nanoTime() - paintStart;
+    }
+
+    // closes the frame; call on the thread that runs the game so its allocations are the ones counted
+    public synchronized void endFrame(int live) {
+        long now = System.nanoTime();
+        long interval = lastFrameEnd == 0 ? 0 : now - lastFrameEnd;
+        lastFrameEnd = now;
+        long allocatedNow = allocatedBytes();
+        long allocated = lastAllocated < 0 || allocatedNow < 0 ? 0 : allocatedNow - lastAllocated;
+        lastAllocated = allocatedNow;
+
+        updateTimes.record(pendingUpdateNanos);
+        paintTimes.record(pendingPaintNanos);
+        if (interval > 0) {
+            frameIntervals.record(interval);
+        }
+        liveObjects.record(live);
+        allocations.record(allocated);
+
+        int slot = (int) (frames % HISTORY);
+        historyUpdate[slot] = pendingUpdateNanos;
+        historyPaint[slot] = pendingPaintNanos;
+        historyInterval[slot] = interval;
+        historyLive[slot] = live;
+        historyAllocated[slot] = allocated;
+        frames++;
+
+        if (FRAME_EVENT.isEnabled()) { // no event object at all unless a recording wants frames
+            FrameEvent event = new FrameEvent();
+            if (event.shouldCommit()) {
+                event.game = game;
+                event.updateNanos = pendingUpdateNanos;
+                event.paintNanos = pendingPaintNanos;
+                event.intervalNanos = interval;
+                event.liveObjects = live;
+                event.allocatedBytes = allocated;
+                event.commit();
+            }
+        }
+        pendingUpdateNanos = 0;
+        pendingPaintNanos = 0;
+    }
+
+    public void toggleOverlay() {
+        overlayVisible = !overlayVisible;
+    }
+
+    public boolean isOverlayVisible() {
+        return overlayVisible;
+    }
+
+    // draws the p50/p99/max table in the corner when the overlay is switched on
+    public void drawOverlay(Graphics g, int x, int y) {
+        if (!overlayVisible) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - overlayBuiltAt > OVERLAY_REFRESH_NANOS) {
+            overlayLines = summaryLines();
+            overlayBuiltAt = now;
+        }
+        g.setFont(OVERLAY_FONT);
+        int lineHeight = g.getFontMetrics().getHeight();
+        int width = 0;
+        for (String line : overlayLines) {
+            width = Math.max(width, g.getFontMetrics().stringWidth(line));
+        }
+        g.setColor(OVERLAY_BACKGROUND);
+        g.fillRect(x, y, width + 10, lineHeight * overlayLines.length + 6);
+        g.setColor(Color.GREEN);
+        for (int i = 0; i < overlayLines.length; i++) {
+            g.drawString(overlayLines[i], x + 5, y + 3 + lineHeight * (i + 1) - g.getFontMetrics().getDescent());
+        }
+    }
+
+    public synchronized String[] summaryLines() {
+        return new String[] {
+                String.format("%s  %d frames     p50      p99      max", game, frames),
+                timeLine("update  ", updateTimes),
+                timeLine("paint   ", paintTimes),
+                timeLine("interval", frameIntervals),
+                String.format("objects  %8d %8d %8d", liveObjects.percentile(50), liveObjects.percentile(99), liveObjects.getMax()),
+                String.format("alloc KB %8.1f %8.1f %8.1f", allocations.percentile(50) / 1024.0,
+                        allocations.percentile(99) / 1024.0, allocations.getMax() / 1024.0)
+        };
+    }
+
+    public String summary() {
+        return String.join(System.lineSeparator(), summaryLines());
+    }
+
+    // writes the most recent frames, oldest first, one row per frame
+    public synchronized void exportCsv(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("frame,update_ns,paint_ns,interval_ns,live_objects,allocated_bytes");
+            long first = Math.max(0, frames - HISTORY);
+            for (long frame = first; frame < frames; frame++) {
+                int slot = (int) (frame % HISTORY);
+                out.println(frame + "," + historyUpdate[slot] + "," + historyPaint[slot] + ","
+                        + historyInterval[slot] + "," + historyLive[slot] + "," + historyAllocated[slot]);
+            }
+        }
+    }
+
+    // exports next to the game as <game>-frames.csv and says where it went
+    public void exportCsv() {
+        Path file = Path.of(game.replace(' ', '-').toLowerCase() + "-frames.csv");
+        try {
+            exportCsv(file);
+            System.out.println("Frame stats written to " + file.toAbsolutePath());
+        } catch (IOException ex) {
+            System.err.println("Could not write frame stats: " + ex.getMessage());
+        }
+    }
+
+    private static String timeLine(String name, LatencyHistogram histogram) {
+        return String.format("%s %6.2fms %6.2fms %6.2fms", name, histogram.percentile(50) / 1e6,
+                histogram.percentile(99) / 1e6, histogram.getMax() / 1e6);
+    }
+
+    private static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            return (com.sun.management.ThreadMXBean) bean;
+        }
+        return null; // not a HotSpot style JVM, allocation is reported as 0
+    }
+}
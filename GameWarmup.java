@@ -0,0 +1,221 @@
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+// gets all three games ready on background threads while Main's menu is open: loads the assets they
+// start with, and runs their classes and drawing code offscreen so it is loaded and compiled before
+// the player picks; the picked game takes the assets over, and its first frame is timed and printed
+// -Dstartup.warmup=false turns it off, to compare
+public class GameWarmup {
+    public static final int MATCHER_SPRITE_CAPACITY = 256; // the shape matcher's sprite cache size
+    private static final int SHOOTER_FRAMES = 300; // ticks and offscreen frames of a shooter game
+    private static final int MATCHER_FRAMES = 300; // shapes picked and painted offscreen
+    private static final int QUIZ_ANSWERS = 5_000; // generated questions answered
+    private static final String[] SWING_CLASSES = { // what the game windows are built from
+            "javax.swing.JFrame", "javax.swing.JPanel", "javax.swing.JLabel", "javax.swing.JButton",
+            "javax.swing.JTextField", "javax.swing.Timer", "java.awt.BorderLayout", "java.awt.GridLayout",
+            "java.awt.Canvas", "java.awt.image.BufferStrategy"};
+    private static final String[] GAME_CLASSES = {"ShapeMatching", "ShapeMatcherGame", "QuizController"};
+
+    private static volatile boolean started = false;
+    private static volatile boolean chosen = false; // once a game is picked the offscreen runs stop
+    private static volatile long startedAt;
+    private static volatile long chosenAt;
+    private static volatile long warmedAt; // 0 until every warm-up job has finished
+    private static volatile boolean firstFrameDrawn = false;
+    private static CompletableFuture<SpriteAtlas> shooterAtlas;
+    private static final AtomicReference<CompletableFuture<ShapeSpriteCache>> matcherSprites = new AtomicReference<>();
+
+    // starts warming up; call once, before the menu is shown
+    public static synchronized void start() {
+        if (started || !Boolean.parseBoolean(System.getProperty("startup.warmup", "true"))) {
+            return;
+        }
+        started = true;
+        startedAt = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(3, runnable -> {
+            Thread thread = new Thread(runnable, "game-warmup");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY); // the menu's EDT comes first
+            return thread;
+        });
+        GraphicsConfiguration gc = SpriteAtlas.defaultConfiguration();
+        shooterAtlas = CompletableFuture.supplyAsync(() -> loadShooterAtlas(gc), workers);
+        CompletableFuture<ShapeSpriteCache> sprites = CompletableFuture.supplyAsync(() -> warmMatcher(gc), workers);
+        matcherSprites.set(sprites);
+        CompletableFuture<Void> classes = CompletableFuture.runAsync(GameWarmup::initializeClasses, workers);
+        CompletableFuture<Void> shooter = shooterAtlas.thenAcceptAsync(atlas -> warmShooter(gc, atlas), workers);
+        CompletableFuture<Void> quiz = classes.thenRunAsync(GameWarmup::warmQuiz, workers);
+        CompletableFuture.allOf(shooter, sprites, quiz).whenComplete((done, failure) -> {
+            warmedAt = System.nanoTime();
+            workers.shutdown();
+            if (failure != null) {
+                System.err.println("Game warm-up failed, games load the rest when they start: " + failure);
+            }
+        });
+    }
+
+    // the player answered a menu; the offscreen runs stop and the first frame clock starts from here
+    public static void choiceMade() {
+        chosenAt = System.nanoTime();
+        chosen = true;
+    }
+
+    // the shape shooter's sprites, loaded during the menu when the warm-up ran
+    public static SpriteAtlas shooterAtlas() {
+        if (shooterAtlas != null) {
+            try {
+                return shooterAtlas.join();
+            } catch (RuntimeException ex) {
+                System.err.println("Warmed up sprites failed to load, loading again: " + ex);
+            }
+        }
+        return loadShooterAtlas(SpriteAtlas.defaultConfiguration());
+    }
+
+    // the shape matcher's sprite cache, already holding the shapes drawn during the warm-up; the cache is
+    // not thread safe, so the warm one goes to the first caller only
+    public static ShapeSpriteCache matcherSprites() {
+        CompletableFuture<ShapeSpriteCache> warm = matcherSprites.getAndSet(null);
+        if (warm != null) {
+            try {
+                return warm.join();
+            } catch (RuntimeException ex) {
+                System.err.println("Warmed up sprite cache failed, starting an empty one: " + ex);
+            }
+        }
+        return new ShapeSpriteCache(SpriteAtlas.defaultConfiguration(), MATCHER_SPRITE_CAPACITY);
+    }
+
+    // called by every frame a game draws, only the first one is reported
+    public static void frameDrawn(String game) {
+        if (firstFrameDrawn) {
+            return;
+        }
+        firstFrameDrawn = true;
+        long now = System.nanoTime();
+        StringBuilder report = new StringBuilder("Startup: ").append(game).append(" drew its first frame ");
+        if (chosenAt != 0) {
+            report.append(String.format("%.0f ms after it was picked, ", (now - chosenAt) / 1e6));
+        }
+        report.append(String.format("%.0f ms after launch", (double) ManagementFactory.getRuntimeMXBean().getUptime()));
+        if (!started) {
+            report.append(", no warm-up");
+        } else if (warmedAt == 0) {
+            report.append(String.format(", warm-up still running after %.0f ms", (now - startedAt) / 1e6));
+        } else {
+            report.append(String.format(", warm-up took %.0f ms", (warmedAt - startedAt) / 1e6));
+        }
+        System.out.println(report);
+    }
+
+    private static SpriteAtlas loadShooterAtlas(GraphicsConfiguration gc) {
+        return SpriteAtlas.load(gc, ShapeShooterEngine.OBSTACLE_WIDTH, ShapeShooterEngine.OBSTACLE_HEIGHT,
+                ShapeShooterEngine.PLAYER_WIDTH, ShapeShooterEngine.PLAYER_HEIGHT);
+    }
+
+    // loads and initializes the classes the windows need, without building any swing component off the EDT
+    private static void initializeClasses() {
+        ClassLoader loader = GameWarmup.class.getClassLoader();
+        for (String name : SWING_CLASSES) {
+            initialize(name, loader);
+        }
+        for (String name : GAME_CLASSES) {
+            initialize(name, loader);
+        }
+    }
+
+    private static void initialize(String name, ClassLoader loader) {
+        try {
+            Class.forName(name, true, loader);
+        } catch (ClassNotFoundException | LinkageError ex) {
+            System.err.println("Game warm-up could not load " + name + ": " + ex);
+        }
+    }
+
+    // plays a game against itself and draws every tick into an image like the screen's
+    private static void warmShooter(GraphicsConfiguration gc, SpriteAtlas atlas) {
+        ShooterRenderer renderer = new ShooterRenderer(atlas, new NotificationQueue());
+        BufferedImage frame = offscreen(gc, ShooterRenderer.WIDTH, ShooterRenderer.HEIGHT);
+        Graphics2D g = frame.createGraphics();
+        try {
+            ShapeShooterEngine engine = newShooterEngine(atlas);
+            int input = ShapeShooterEngine.INPUT_RIGHT;
+            for (int i = 0; i < SHOOTER_FRAMES && !chosen; i++) {
+                if (engine.isGameOver()) {
+                    engine = newShooterEngine(atlas);
+                }
+                // sweeps the player across the screen, firing, so every branch of the tick gets run
+                if (engine.getPlayerX() <= 0) {
+                    input = ShapeShooterEngine.INPUT_RIGHT;
+                } else if (engine.getPlayerX() >= ShapeShooterEngine.WIDTH - ShapeShooterEngine.PLAYER_WIDTH) {
+                    input = ShapeShooterEngine.INPUT_LEFT;
+                }
+                engine.tick(input | ShapeShooterEngine.INPUT_FIRE_HELD);
+                renderer.draw(g, engine, 0.5, i % 2 == 0 ? "Correct!" : null); // both HUD modes
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private static ShapeShooterEngine newShooterEngine(SpriteAtlas atlas) {
+        ShapeShooterEngine engine = new ShapeShooterEngine(0, ShapeShooterBatchRunner.SILENT);
+        engine.setObstacleMasks(atlas.getShapeMasks());
+        engine.setFireRate(2, 0);
+        engine.setAutoFire(true);
+        return engine;
+    }
+
+    // picks and paints the shapes the game can ask for; with the palette on this also fills the sprite cache
+    // the game will take with the sprites it is going to draw
+    private static ShapeSpriteCache warmMatcher(GraphicsConfiguration gc) {
+        ShapeSpriteCache sprites = new ShapeSpriteCache(gc, MATCHER_SPRITE_CAPACITY);
+        ShapeMatcherScene scene = new ShapeMatcherScene(ShapeCatalog.standard().forDifficulty(
+                ShapeMatcherGame.MORE_SHAPES ? ShapeCatalog.HARD : ShapeCatalog.EASY), sprites, new Random(), ShapeMatcherGame.PALETTE);
+        BufferedImage frame = offscreen(gc, ShapeMatcherScene.PANEL_WIDTH, ShapeMatcherScene.PANEL_HEIGHT);
+        Graphics2D g = frame.createGraphics();
+        try {
+            for (int i = 0; i < MATCHER_FRAMES && !chosen; i++) {
+                scene.pickRandomShape();
+                scene.paint(g);
+            }
+        } finally {
+            g.dispose();
+        }
+        return sprites;
+    }
+
+    // answers generated questions and draws text in the quiz's fonts, which loads the font files
+    private static void warmQuiz() {
+        BufferedImage frame = new BufferedImage(500, 100, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = frame.createGraphics();
+        try {
+            for (Font font : new Font[] {QuizController.QUESTION_FONT, QuizController.ANSWER_FONT, QuizController.FEEDBACK_FONT}) {
+                g.setFont(font);
+                g.drawString("What's 12 + 7 * 3? Correct! 0123456789", 0, 50);
+            }
+        } finally {
+            g.dispose();
+        }
+        QuizSession session = QuizSession.endless(new QuestionGenerator(0), new ExpressionCompiler(1024));
+        for (int i = 0; i < QUIZ_ANSWERS && !chosen; i++) {
+            String question = session.getQuestion();
+            if (i % 10 == 0) {
+                session.answer("wrong"); // the miss path too
+            }
+            session.answer(Long.toString(Math.round(ExpressionCompiler.parse(question).evaluate())));
+        }
+    }
+
+    private static BufferedImage offscreen(GraphicsConfiguration gc, int width, int height) {
+        return gc != null ? gc.createCompatibleImage(width, height) : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+}
@@ -0,0 +1,149 @@
+import java.util.Random;
+
+// places new obstacles in constant time by splitting the top row into obstacle-wide lanes
+// a lane is taken when something spawns in it and given back once that obstacle has fallen clear
+// of the top row, so a spawn never has to look at other obstacles or retry
+public class LaneSpawner {
+    private static final ShapeType[] SHAPE_TYPES = ShapeType.values();
+    public static final int MAX_LEVEL = 2;
+
+    private final int laneWidth;
+    private final int laneHeight;
+    private final int[] freeLanes; // first freeCount entries are the free lanes
+    private int freeCount;
+
+    // lanes that are taken, oldest first
+    private final int[] takenLanes;
+    private final long[] freeAtTick;
+    private int takenHead = 0;
+    private int takenCount = 0;
+
+    private double spawnChance = 0.02; // chance of a wave each tick
+    private int waveSize = 1; // obstacles per wave
+    private final int[][] shapeWeights = new int[MAX_LEVEL + 1][]; // per level, indexed by ShapeType ordinal
+
+    public LaneSpawner(int width, int laneWidth, int laneHeight) {
+        this.laneWidth = laneWidth;
+        this.laneHeight = laneHeight;
+        int lanes = width / laneWidth;
+        freeLanes = new int[lanes];
+        takenLanes = new int[lanes];
+        freeAtTick = new long[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            freeLanes[lane] = lane;
+        }
+        freeCount = lanes;
+
+        // the prompts only ever name level one shapes, so level two keeps spawning them too
+        for (int level = 1; level <= MAX_LEVEL; level++) {
+            shapeWeights[level] = new int[SHAPE_TYPES.length];
+            setShapeWeight(level, ShapeType.RECTANGLE, 1);
+            setShapeWeight(level, ShapeType.CIRCLE, 1);
+            setShapeWeight(level, ShapeType.TRIANGLE, 1);
+        }
+    }
+
+    // spawnChance is the chance of a wave each tick, waveSize how many obstacles a wave drops at once
+    public void setDensity(double spawnChance, int waveSize) {
+        this.spawnChance = spawnChance;
+        this.waveSize = waveSize;
+    }
+
+    // relative chance of a shape on a level, 0 keeps it off that level; a level always keeps at least
+    // one shape, so give the new shape its weight before taking the old one's away
+    public void setShapeWeight(int level, ShapeType shapeType, int weight) {
+        if (level < 1 || level > MAX_LEVEL) {
+            throw new IllegalArgumentException("no level " + level);
+        }
+        if (weight < 0) {
+            throw new IllegalArgumentException("negative weight " + weight + " for " + shapeType);
+        }
+        int[] weights = shapeWeights[level];
+        long total = weight;
+        for (int i = 0; i < weights.length; i++) {
+            if (i != shapeType.ordinal()) {
+                total += weights[i];
+            }
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("level " + level + " would have no shapes left to spawn");
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("weights on level " + level + " add up past " + Integer.MAX_VALUE);
+        }
+        weights[shapeType.ordinal()] = weight;
+    }
+
+    public int getShapeWeight(int level, ShapeType shapeType) {
+        if (level < 1 || level > MAX_LEVEL) {
+            throw new IllegalArgumentException("no level " + level);
+        }
+        return shapeWeights[level][shapeType.ordinal()];
+    }
+
+    // spawns this tick's obstacles into the store, obstacles fall fallSpeed pixels per tick
+    public void spawn(ObstacleStore obstacles, Random random, long tick, int level, int fallSpeed) {
+        releaseLanes(tick);
+        if (random.nextDouble() >= spawnChance) {
+            return;
+        }
+        int[] weights = shapeWeights[Math.min(level, MAX_LEVEL)];
+        for (int i = 0; i < waveSize && freeCount > 0 && obstacles.size() < obstacles.capacity(); i++) {
+            int lane = takeLane(random.nextInt(freeCount), tick + (laneHeight + fallSpeed - 1) / fallSpeed);
+            obstacles.add(lane * laneWidth, 0, pickShape(weights, random));
+        }
+    }
+
+    public double getSpawnChance() {
+        return spawnChance;
+    }
+
+    public int getWaveSize() {
+        return waveSize;
+    }
+
+    public int getFreeLaneCount() {
+        return freeCount;
+    }
+
+    private int takeLane(int position, long freeAt) {
+        int lane = freeLanes[position];
+        int last = freeLanes[--freeCount];
+        freeLanes[position] = last; // swap the last free lane into the hole
+
+        int slot = (takenHead + takenCount) % takenLanes.length;
+        takenLanes[slot] = lane;
+        freeAtTick[slot] = freeAt;
+        takenCount++;
+        return lane;
+    }
+
+    // only the front of the queue is checked; after a speed-up a newer lane may be clear before an
+    // older one, it then just waits for the older one, which never lets obstacles overlap
+    private void releaseLanes(long tick) {
+        while (takenCount > 0 && freeAtTick[takenHead] <= tick) {
+            freeLane(takenLanes[takenHead]);
+            takenHead = (takenHead + 1) % takenLanes.length;
+            takenCount--;
+        }
+    }
+
+    private void freeLane(int lane) {
+        freeLanes[freeCount++] = lane;
+    }
+
+    private static ShapeType pickShape(int[] weights, Random random) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int pick = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                return SHAPE_TYPES[i];
+            }
+        }
+        return SHAPE_TYPES[0];
+    }
+}
@@ -2,6 +2,7 @@ import javax.swing.*;
 
 public class Main {
     public static void main(String[] args){
+        GameWarmup.start(); // loads and warms up every game in the background while the menu is open
         String[] options = {"Shape Matcher Game", "Quiz Controller Game", "Shape Shooter Game"}; //String array of the three game options
 
         //Creates dialog box that displays the game titles and descriptions and provides buttons that allow the user to select a game
@@ -10,6 +11,7 @@ public class Main {
                 "Game Selection Menu",
                 JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE,
                 null, options, options[0]);
+        GameWarmup.choiceMade(); // the chosen game's first frame is timed from here
         switch (response) //switch statement that runs the game selected by the user
         {
             case 0: // Game 1 selection
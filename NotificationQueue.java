@@ -0,0 +1,67 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// in-game banners that replace the modal JOptionPane messages
+// game logic posts from any thread and never waits, draw() shows each message for a few seconds
+public class NotificationQueue {
+    private static final long DISPLAY_NANOS = 2_000_000_000L; // how long a banner stays up
+    private static final int MAX_VISIBLE = 3; // older banners are pushed off when more arrive
+    private static final Font BANNER_FONT = new Font("Arial", Font.BOLD, 16);
+    private static final Color BANNER_BACKGROUND = new Color(0, 0, 0, 170);
+    private static final int BANNER_HEIGHT = 28;
+
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>();
+    private final String[] visible = new String[MAX_VISIBLE]; // oldest first
+    private final long[] expiresAt = new long[MAX_VISIBLE];
+    private int visibleCount = 0;
+
+    // safe to call from the game loop, key handlers or any other thread
+    public void post(String message) {
+        pending.add(message);
+    }
+
+    // moves new messages onto the screen, drops expired ones and draws the rest centered at top
+    public void draw(Graphics g, int width, int top) {
+        long now = System.nanoTime();
+        String message;
+        while ((message = pending.poll()) != null) {
+            if (visibleCount == MAX_VISIBLE) {
+                removeOldest();
+            }
+            visible[visibleCount] = message;
+            expiresAt[visibleCount] = now + DISPLAY_NANOS;
+            visibleCount++;
+        }
+        while (visibleCount > 0 && expiresAt[0] - now <= 0) {
+            removeOldest();
+        }
+
+        g.setFont(BANNER_FONT);
+        FontMetrics metrics = g.getFontMetrics();
+        for (int i = 0; i < visibleCount; i++) {
+            int textWidth = metrics.stringWidth(visible[i]);
+            int x = (width - textWidth) / 2;
+            int y = top + i * (BANNER_HEIGHT + 4);
+            g.setColor(BANNER_BACKGROUND);
+            g.fillRoundRect(x - 12, y, textWidth + 24, BANNER_HEIGHT, 12, 12);
+            g.setColor(Color.WHITE);
+            g.drawString(visible[i], x, y + (BANNER_HEIGHT + metrics.getAscent() - metrics.getDescent()) / 2);
+        }
+    }
+
+    public boolean isEmpty() {
+        return visibleCount == 0 && pending.isEmpty();
+    }
+
+    private void removeOldest() {
+        for (int i = 1; i < visibleCount; i++) {
+            visible[i - 1] = visible[i];
+            expiresAt[i - 1] = expiresAt[i];
+        }
+        visibleCount--;
+        visible[visibleCount] = null;
+    }
+}
@@ -0,0 +1,170 @@
+// fixed-size pool of obstacles kept in plain arrays instead of one object per obstacle
+// removing swaps the last obstacle into the hole so nothing shifts and nothing is allocated
+// an optional SpatialGrid is kept in step with every add, move and remove
+public class ObstacleStore {
+    private static final ShapeType[] SHAPE_TYPES = ShapeType.values(); // cached, values() copies the array every call
+
+    private final int[] xs;
+    private final int[] ys;
+    private final byte[] shapes; // ShapeType ordinal of each obstacle
+    private final SpatialGrid grid; // null when the store is not indexed
+    private int count = 0;
+
+    public ObstacleStore(int capacity) {
+        this(capacity, null);
+    }
+
+    public ObstacleStore(int capacity, SpatialGrid grid) {
+        xs = new int[capacity];
+        ys = new int[capacity];
+        shapes = new byte[capacity];
+        this.grid = grid;
+    }
+
+    // adds an obstacle and returns its slot, or -1 when the store is full
+    public int add(int x, int y, ShapeType shapeType) {
+        if (count == xs.length) {
+            return -1;
+        }
+        int index = count++;
+        xs[index] = x;
+        ys[index] = y;
+        shapes[index] = (byte) shapeType.ordinal();
+        if (grid != null) {
+            grid.insert(index, x, y);
+        }
+        return index;
+    }
+
+    // removes the obstacle at index by moving the last one into its slot
+    public void remove(int index) {
+        int last = --count;
+        if (grid != null) {
+            grid.remove(index);
+        }
+        if (index != last) {
+            xs[index] = xs[last];
+            ys[index] = ys[last];
+            shapes[index] = shapes[last];
+            if (grid != null) {
+                grid.moveSlot(last, index);
+            }
+        }
+    }
+
+    public void clear() {
+        count = 0;
+        if (grid != null) {
+            grid.clear();
+        }
+    }
+
+    // lowest slot of an obstacle overlapping the box, or -1
+    public int findOverlap(int x, int y, int width, int height) {
+        return findOverlap(x, y, width, height, null, null);
+    }
+
+    // lowest slot of an obstacle whose box overlaps and whose mask (by shape) touches boxMask, or -1
+    // the box test is the broad phase, masks are only compared for obstacles that pass it
+    public int findOverlap(int x, int y, int width, int height, CollisionMask boxMask, CollisionMask[] shapeMasks) {
+        if (grid != null) {
+            return grid.findOverlap(x, y, width, height, this, boxMask, shapeMasks);
+        }
+        for (int i = 0; i < count; i++) {
+            if (x < xs[i] + ShapeShooterEngine.OBSTACLE_WIDTH && xs[i] < x + width
+                    && y < ys[i] + ShapeShooterEngine.OBSTACLE_HEIGHT && ys[i] < y + height
+                    && masksOverlap(i, x, y, boxMask, shapeMasks)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // narrow phase for an obstacle whose box already overlaps a box at (x, y)
+    boolean masksOverlap(int index, int x, int y, CollisionMask boxMask, CollisionMask[] shapeMasks) {
+        if (shapeMasks == null || boxMask == null) {
+            return true;
+        }
+        CollisionMask mask = shapeMasks[shapes[index]];
+        return mask == null || mask.overlaps(xs[index], ys[index], boxMask, x, y);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int capacity() {
+        return xs.length;
+    }
+
+    public int getX(int index) {
+        return xs[index];
+    }
+
+    public int getY(int index) {
+        return ys[index];
+    }
+
+    public void setY(int index, int y) {
+        ys[index] = y;
+        if (grid != null) {
+            grid.update(index, xs[index], y);
+        }
+    }
+
+    // overwrites a slot with state from somewhere else, used by clients that mirror a server
+    void set(int index, int x, int y, int shapeCode) {
+        xs[index] = x;
+        ys[index] = y;
+        shapes[index] = (byte) shapeCode;
+        if (grid != null) {
+            grid.update(index, x, y);
+        }
+    }
+
+    // grows or shrinks to size slots; new slots start at 0, 0 until set() fills them
+    void setSize(int size) {
+        for (int i = size; i < count; i++) {
+            if (grid != null) {
+                grid.remove(i);
+            }
+        }
+        for (int i = count; i < size; i++) {
+            xs[i] = 0;
+            ys[i] = 0;
+            shapes[i] = 0;
+            if (grid != null) {
+                grid.insert(i, 0, 0);
+            }
+        }
+        count = size;
+    }
+
+    // moves slots from..to-1 down by dy without touching the grid, writing each slot's new cell to
+    // stagedCells; different ranges can run on different threads, then commitShift() relinks the grid
+    public void shiftDown(int from, int to, int dy, int[] stagedCells) {
+        for (int i = from; i < to; i++) {
+            ys[i] += dy;
+            if (grid != null) {
+                stagedCells[i] = grid.cellFor(xs[i], ys[i]);
+            }
+        }
+    }
+
+    // applies the cells staged by shiftDown() for the first count slots, on one thread
+    public void commitShift(int count, int[] stagedCells) {
+        if (grid != null) {
+            for (int i = 0; i < count; i++) {
+                grid.moveToCell(i, stagedCells[i]);
+            }
+        }
+    }
+
+    public byte getShapeCode(int index) {
+        return shapes[index];
+    }
+
+    public ShapeType getShapeType(int index) {
+        return SHAPE_TYPES[shapes[index]];
+    }
+}
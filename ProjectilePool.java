@@ -0,0 +1,77 @@
+// fixed-size pool of projectiles in flight, kept in plain arrays like ObstacleStore
+// firing and expiring never allocate, removing swaps the last projectile into the hole
+public class ProjectilePool {
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] ages; // ticks since the projectile was fired
+    private int count = 0;
+
+    public ProjectilePool(int capacity) {
+        xs = new int[capacity];
+        ys = new int[capacity];
+        ages = new int[capacity];
+    }
+
+    // adds a projectile and returns its slot, or -1 when every slot is in flight
+    public int add(int x, int y) {
+        if (count == xs.length) {
+            return -1;
+        }
+        int index = count++;
+        xs[index] = x;
+        ys[index] = y;
+        ages[index] = 0;
+        return index;
+    }
+
+    public void remove(int index) {
+        int last = --count;
+        if (index != last) {
+            xs[index] = xs[last];
+            ys[index] = ys[last];
+            ages[index] = ages[last];
+        }
+    }
+
+    // moves a projectile up by dy and ages it one tick
+    public void advance(int index, int dy) {
+        ys[index] -= dy;
+        ages[index]++;
+    }
+
+    // overwrites a slot with state from somewhere else, used by clients that mirror a server
+    void set(int index, int x, int y) {
+        xs[index] = x;
+        ys[index] = y;
+    }
+
+    // grows or shrinks to size slots; new slots start fresh until set() fills them
+    void setSize(int size) {
+        for (int i = count; i < size; i++) {
+            xs[i] = 0;
+            ys[i] = 0;
+            ages[i] = 0;
+        }
+        count = size;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int capacity() {
+        return xs.length;
+    }
+
+    public int getX(int index) {
+        return xs[index];
+    }
+
+    public int getY(int index) {
+        return ys[index];
+    }
+
+    public int getAge(int index) {
+        return ages[index];
+    }
+}
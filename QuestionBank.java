@@ -0,0 +1,140 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Random;
+
+// a read-only file of quiz questions, mapped into memory rather than read onto the heap
+// any question is found in O(1) through a fixed-width index of record offsets, and only the pages
+// that are actually touched are loaded by the OS, so opening a bank takes the same time and heap
+// however many questions it holds; QuestionBankBuilder writes banks
+//
+// layout, big-endian:
+//   header   int magic "QBNK", int version, long question count, long index offset
+//   records  one per question: double answer, then the question as UTF-8
+//   index    count + 1 longs, the offset of each record and then the end of the last one
+// a buffer can only map 2 GB, so bigger files are mapped as 1 GB segments that overlap by the
+// largest record; a record or index entry then always lies whole inside the segment it starts in
+public class QuestionBank implements AutoCloseable {
+    static final int MAGIC = 0x51424E4B; // "QBNK"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 24;
+    public static final int MAX_TEXT_BYTES = 65535;
+    static final int MAX_RECORD_BYTES = Double.BYTES + MAX_TEXT_BYTES;
+    private static final long SEGMENT_BYTES = 1L << 30;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long count;
+    private final long indexOffset;
+
+    private QuestionBank(FileChannel channel, MappedByteBuffer[] segments, long count, long indexOffset) {
+        this.channel = channel;
+        this.segments = segments;
+        this.count = count;
+        this.indexOffset = indexOffset;
+    }
+
+    public static QuestionBank open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // read() may stop short, keep going until the header is in or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a question bank");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException(file + " is question bank version " + header.getInt(4) + ", not " + VERSION);
+            }
+            long count = header.getLong(8);
+            long indexOffset = header.getLong(16);
+            if (count < 0 || indexOffset < HEADER_BYTES || indexOffset + (count + 1) * Long.BYTES != fileSize) {
+                throw new IOException(file + " is cut short or damaged: " + count + " questions, index at "
+                        + indexOffset + ", " + fileSize + " bytes");
+            }
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((fileSize + SEGMENT_BYTES - 1) / SEGMENT_BYTES)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = i * SEGMENT_BYTES;
+                long length = Math.min(fileSize - start, SEGMENT_BYTES + MAX_RECORD_BYTES);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+            return new QuestionBank(channel, segments, count, indexOffset);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long size() {
+        return count;
+    }
+
+    // the text of question i; safe to call from many threads at once
+    public String getText(long i) {
+        long start = recordStart(i);
+        int length = recordLength(i, start) - Double.BYTES;
+        byte[] bytes = new byte[length];
+        segment(start).get(offsetIn(start) + Double.BYTES, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public double getAnswer(long i) {
+        long start = recordStart(i);
+        recordLength(i, start);
+        return segment(start).getDouble(offsetIn(start));
+    }
+
+    // an endless iterator of questions picked at random, only the current one is held
+    public Iterator<String> randomOrder(long seed) {
+        Random random = new Random(seed);
+        return new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return count > 0;
+            }
+
+            @Override
+            public String next() {
+                return getText(Math.floorMod(random.nextLong(), count));
+            }
+        };
+    }
+
+    // the mapping stays until the buffers are garbage collected, closing only releases the file
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long recordStart(long i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("question " + i + " of " + count);
+        }
+        long entry = indexOffset + i * Long.BYTES;
+        return segment(entry).getLong(offsetIn(entry));
+    }
+
+    private int recordLength(long i, long start) {
+        long entry = indexOffset + (i + 1) * Long.BYTES;
+        long length = segment(entry).getLong(offsetIn(entry)) - start;
+        if (start < HEADER_BYTES || length < Double.BYTES || length > MAX_RECORD_BYTES || start + length > indexOffset) {
+            throw new IllegalStateException("question bank index is damaged at question " + i);
+        }
+        return (int) length;
+    }
+
+    private MappedByteBuffer segment(long position) {
+        return segments[(int) (position / SEGMENT_BYTES)];
+    }
+
+    private static int offsetIn(long position) {
+        return (int) (position % SEGMENT_BYTES);
+    }
+}
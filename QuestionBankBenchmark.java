@@ -0,0 +1,54 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+// opens a question bank and reports how long opening took and the heap it used, which should not
+// depend on the bank's size, then fetches questions at random and reports fetches per second
+// a sample of the fetched questions is re-evaluated to check the stored answers
+// usage: java QuestionBankBenchmark <bank file> [fetches] [seed]
+public class QuestionBankBenchmark {
+    private static final int CHECK_EVERY = 1000; // fetched questions re-evaluated, one in this many
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: java QuestionBankBenchmark <bank file> [fetches] [seed]");
+            System.exit(2);
+        }
+        long fetches = args.length > 1 ? Long.parseLong(args[1]) : 5_000_000L;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        long start = System.nanoTime();
+        try (QuestionBank bank = QuestionBank.open(Paths.get(args[0]))) {
+            double openMillis = (System.nanoTime() - start) / 1e6;
+            System.gc();
+            long heapAfter = memory.getHeapMemoryUsage().getUsed();
+            System.out.printf("opened %d questions (%d MB) in %.2f ms, heap %d KB before and %d KB after%n",
+                    bank.size(), Files.size(Paths.get(args[0])) >> 20, openMillis, heapBefore / 1024, heapAfter / 1024);
+            if (bank.size() == 0) {
+                return;
+            }
+
+            Random random = new Random(seed);
+            long characters = 0;
+            long wrong = 0;
+            start = System.nanoTime();
+            for (long i = 0; i < fetches; i++) {
+                long question = Math.floorMod(random.nextLong(), bank.size());
+                String text = bank.getText(question);
+                characters += text.length();
+                if (i % CHECK_EVERY == 0 && ExpressionCompiler.parse(text).evaluate() != bank.getAnswer(question)) {
+                    wrong++;
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d random fetches in %.2f s: %.0f fetches/s, %.1f characters each, %d of %d checked answers wrong%n",
+                    fetches, seconds, fetches / seconds, (double) characters / fetches, wrong, (fetches + CHECK_EVERY - 1) / CHECK_EVERY);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// writes a QuestionBank file from a CSV of questions, or from QuestionGenerator for test banks
+// the input is streamed: records go straight to the bank and the index to a temporary file that is
+// appended at the end, so memory use is the same for a hundred questions or a hundred million
+// CSV lines are question[,answer]; a missing answer is worked out from the question, a given one must
+// match it; quotes work as usual ("a, b" and "" for a quote), blank lines and lines starting with #
+// are skipped, and so is a first line of question,answer
+// usage: java QuestionBankBuilder <questions.csv> <bank file>
+//        java QuestionBankBuilder --generate <count> <bank file> [maxDepth] [seed]
+public class QuestionBankBuilder implements AutoCloseable {
+    private final Path bankFile;
+    private final Path indexFile;
+    private final DataOutputStream records;
+    private final DataOutputStream index;
+    private long count = 0;
+    private long offset = QuestionBank.HEADER_BYTES;
+
+    public QuestionBankBuilder(Path bankFile) throws IOException {
+        this.bankFile = bankFile;
+        this.indexFile = Files.createTempFile(bankFile.toAbsolutePath().getParent(), "index", ".tmp");
+        OutputStream out = null;
+        try {
+            out = Files.newOutputStream(bankFile);
+            out.write(new byte[QuestionBank.HEADER_BYTES]); // filled in by close() once the count is known
+            this.records = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+            this.index = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile), 1 << 16));
+        } catch (IOException | RuntimeException ex) {
+            // close() will never run, so the temporary index goes now
+            try {
+                if (out != null) {
+                    out.close();
+                }
+                Files.deleteIfExists(indexFile);
+            } catch (IOException cleanup) {
+                ex.addSuppressed(cleanup);
+            }
+            throw ex;
+        }
+    }
+
+    public void add(String text, double answer) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > QuestionBank.MAX_TEXT_BYTES) {
+            throw new IllegalArgumentException("question is longer than " + QuestionBank.MAX_TEXT_BYTES + " bytes");
+        }
+        index.writeLong(offset);
+        records.writeDouble(answer);
+        records.write(bytes);
+        offset += Double.BYTES + bytes.length;
+        count++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // appends the index and writes the header; the bank is only valid once this has run
+    @Override
+    public void close() throws IOException {
+        try {
+            index.writeLong(offset); // end of the last record
+            index.close();
+            records.close();
+            try (FileChannel bank = FileChannel.open(bankFile, StandardOpenOption.WRITE);
+                 FileChannel in = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+                long size = in.size();
+                for (long done = 0; done < size; ) {
+                    done += in.transferTo(done, size - done, bank.position(offset + done));
+                }
+                ByteBuffer header = ByteBuffer.allocate(QuestionBank.HEADER_BYTES);
+                header.putInt(QuestionBank.MAGIC).putInt(QuestionBank.VERSION).putLong(count).putLong(offset).flip();
+                while (header.hasRemaining()) {
+                    bank.write(header, header.position());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(indexFile);
+        }
+    }
+
+    // fields of one CSV line, or null when the line's quotes don't close
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // adds every question in the CSV, stopping at the first bad line with its line number
+    public void addCsv(BufferedReader in) throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")
+                    || (lineNumber == 1 && trimmed.replace(" ", "").equalsIgnoreCase("question,answer"))) {
+                continue;
+            }
+            List<String> fields = parseCsvLine(line);
+            if (fields == null || fields.size() > 2) {
+                throw new IllegalArgumentException("line " + lineNumber + ": expected question[,answer]");
+            }
+            String text = fields.get(0).trim();
+            double answer;
+            try {
+                answer = ExpressionCompiler.parse(text).evaluate();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("line " + lineNumber + ": " + e.getMessage());
+            }
+            if (fields.size() == 2 && !fields.get(1).trim().isEmpty()
+                    && !ExpressionCompiler.matches(fields.get(1).trim(), answer)) {
+                throw new IllegalArgumentException("line " + lineNumber + ": answer " + fields.get(1).trim()
+                        + " is wrong, " + text + " is " + answer);
+            }
+            add(text, answer);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("--generate")) {
+            long questions = Long.parseLong(args[1]);
+            QuestionGenerator generator = new QuestionGenerator(args.length > 4 ? Long.parseLong(args[4]) : 42L);
+            generator.setOperandRange(1, 50);
+            generator.setMaxDepth(args.length > 3 ? Integer.parseInt(args[3]) : 3);
+            generator.setDifficultyCurve(QuestionGenerator.linear(questions));
+            long start = System.nanoTime();
+            try (QuestionBankBuilder builder = new QuestionBankBuilder(Paths.get(args[2]))) {
+                for (long i = 0; i < questions; i++) {
+                    QuestionGenerator.Question question = generator.next();
+                    builder.add(question.text, question.answer);
+                }
+            }
+            report(Paths.get(args[2]), questions, start);
+        } else if (args.length == 2) {
+            long start = System.nanoTime();
+            long questions = 0;
+            try (BufferedReader in = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8);
+                 QuestionBankBuilder builder = new QuestionBankBuilder(Paths.get(args[1]))) {
+                builder.addCsv(in);
+                questions = builder.getCount();
+            } catch (IllegalArgumentException e) {
+                Files.deleteIfExists(Paths.get(args[1])); // no half-built banks
+                System.err.println(args[0] + ", " + e.getMessage());
+                System.exit(1);
+            }
+            report(Paths.get(args[1]), questions, start);
+        } else {
+            System.err.println("usage: java QuestionBankBuilder <questions.csv> <bank file>");
+            System.err.println("       java QuestionBankBuilder --generate <count> <bank file> [maxDepth] [seed]");
+            System.exit(2);
+        }
+    }
+
+    private static void report(Path bank, long questions, long start) throws IOException {
+        System.out.printf("wrote %d questions to %s, %d bytes, in %.2f s%n",
+                questions, bank, Files.size(bank), (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,185 @@
+import java.util.Iterator;
+import java.util.Random;
+import java.util.function.LongToDoubleFunction;
+import java.util.stream.Stream;
+
+// endless arithmetic questions for the quiz, each one made only when it is asked for
+// nothing is kept between questions except the random generator and a counter, so a session can
+// run forever in the same memory; the difficulty curve maps the question number to 0..1, which
+// widens the operand range and allows deeper nesting as the player goes on
+// divisions always come out even, so every answer is a whole number
+public class QuestionGenerator implements Iterator<QuestionGenerator.Question> {
+    public static final String ALL_OPERATORS = "+-*/";
+
+    // one question: the text shown to the player and the answer it expects
+    public static class Question {
+        public final String text;
+        public final long answer;
+
+        public Question(String text, long answer) {
+            this.text = text;
+            this.answer = answer;
+        }
+
+        @Override
+        public String toString() {
+            return text + " = " + answer;
+        }
+    }
+
+    private final Random random;
+    private final StringBuilder text = new StringBuilder(64); // reused for every question
+    private char[] operators = ALL_OPERATORS.toCharArray();
+    private int minOperand = 1;
+    private int maxOperand = 12;
+    private int maxDepth = 2;
+    private LongToDoubleFunction difficultyCurve = linear(50);
+    private long count = 0;
+
+    public QuestionGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    // difficulty that climbs evenly from 0 to 1 over the given number of questions, then stays at 1
+    public static LongToDoubleFunction linear(long questionsToMax) {
+        return index -> Math.min(1.0, (double) index / Math.max(1, questionsToMax));
+    }
+
+    // the same difficulty for every question
+    public static LongToDoubleFunction constant(double difficulty) {
+        return index -> difficulty;
+    }
+
+    // operators to pick from, any of + - * /
+    public void setOperators(String operators) {
+        if (operators.isEmpty()) {
+            throw new IllegalArgumentException("at least one operator is needed");
+        }
+        for (char op : operators.toCharArray()) {
+            if (ALL_OPERATORS.indexOf(op) < 0) {
+                throw new IllegalArgumentException("unknown operator " + op);
+            }
+        }
+        this.operators = operators.toCharArray();
+    }
+
+    // range of the numbers in a question at full difficulty; easier questions use the low end of it
+    public void setOperandRange(int min, int max) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("bad operand range " + min + ".." + max);
+        }
+        this.minOperand = min;
+        this.maxOperand = max;
+    }
+
+    // how many levels of brackets a question may have at full difficulty, 0 for a single operation
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("depth can't be negative: " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+    }
+
+    public void setDifficultyCurve(LongToDoubleFunction difficultyCurve) {
+        this.difficultyCurve = difficultyCurve;
+    }
+
+    // how many questions have been made so far
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return true;
+    }
+
+    @Override
+    public Question next() {
+        double difficulty = Math.max(0, Math.min(1, difficultyCurve.applyAsDouble(count)));
+        count++;
+        int top = minOperand + (int) Math.round((maxOperand - minOperand) * (0.2 + 0.8 * difficulty));
+        int depth = (int) Math.round(maxDepth * difficulty);
+        text.setLength(0);
+        long answer = expression(depth, top, true);
+        return new Question(text.toString(), answer);
+    }
+
+    // an unbounded lazy stream of questions; limit it, or take them one at a time
+    public Stream<Question> stream() {
+        return Stream.generate(this::next);
+    }
+
+    // appends an expression with up to depth levels of nesting to text and returns its value
+    private long expression(int depth, int top, boolean outermost) {
+        if (depth < 0) {
+            return number(top);
+        }
+        int start = text.length();
+        if (!outermost) {
+            text.append('(');
+        }
+        char op = operators[random.nextInt(operators.length)];
+        // each side is nested one level less, or sometimes is just a number so questions vary in shape
+        int leftDepth = depth > 0 && random.nextBoolean() ? depth - 1 : -1;
+        int rightDepth = depth > 0 && (leftDepth < 0 || random.nextBoolean()) ? depth - 1 : -1;
+        long value;
+        switch (op) {
+            case '+':
+                value = expression(leftDepth, top, false);
+                text.append(" + ");
+                value += expression(rightDepth, top, false);
+                break;
+            case '-': {
+                // the larger side goes first, so answers are never negative
+                long left = expression(leftDepth, top, false);
+                int middle = text.length();
+                text.append(" - ");
+                long right = expression(rightDepth, top, false);
+                if (right > left) {
+                    String leftText = text.substring(outermost ? start : start + 1, middle);
+                    String rightText = text.substring(middle + 3);
+                    text.setLength(outermost ? start : start + 1);
+                    text.append(rightText).append(" - ").append(leftText);
+                    long swap = left;
+                    left = right;
+                    right = swap;
+                }
+                value = left - right;
+                break;
+            }
+            case '*':
+                // products grow fast, so the right side of a product is kept small
+                value = expression(leftDepth, top, false);
+                text.append(" * ");
+                value *= expression(-1, Math.max(minOperand, Math.min(top, 12)), false);
+                break;
+            default: {
+                // the divisor is made first and the dividend is a multiple of it, so the answer is whole
+                int divisorStart = text.length();
+                long divisor = expression(rightDepth, top, false);
+                if (divisor == 0) {
+                    text.setLength(divisorStart);
+                    text.append('1');
+                    divisor = 1;
+                }
+                String divisorText = text.substring(divisorStart);
+                text.setLength(divisorStart);
+                long quotient = minOperand + random.nextInt(Math.max(1, top - minOperand + 1));
+                text.append(quotient * divisor).append(" / ").append(divisorText);
+                value = quotient;
+                break;
+            }
+        }
+        if (!outermost) {
+            text.append(')');
+        }
+        return value;
+    }
+
+    private long number(int top) {
+        int value = minOperand + random.nextInt(top - minOperand + 1);
+        text.append(value);
+        return value;
+    }
+}
@@ -0,0 +1,45 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+// generates questions as fast as it can and reports questions per second, and the heap in use
+// before and after, which should not grow however many questions are made
+// usage: java QuestionGeneratorBenchmark [questions] [maxDepth] [operators] [seed]
+public class QuestionGeneratorBenchmark {
+
+    public static void main(String[] args) {
+        long questions = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int maxDepth = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        String operators = args.length > 2 ? args[2] : QuestionGenerator.ALL_OPERATORS;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+
+        QuestionGenerator generator = new QuestionGenerator(seed);
+        generator.setOperators(operators);
+        generator.setOperandRange(1, 50);
+        generator.setMaxDepth(maxDepth);
+        generator.setDifficultyCurve(QuestionGenerator.linear(questions / 2));
+        generator.stream().limit(5).forEach(q -> System.out.println("  " + q));
+
+        long checksum = 0; // keeps the JIT from dropping the questions
+        for (int i = 0; i < 200_000; i++) { // warm up before timing
+            checksum += generator.next().answer;
+        }
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        long start = System.nanoTime();
+        long characters = 0;
+        for (long i = 0; i < questions; i++) {
+            QuestionGenerator.Question question = generator.next();
+            checksum += question.answer;
+            characters += question.text.length();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.gc();
+        long heapAfter = memory.getHeapMemoryUsage().getUsed();
+
+        System.out.printf("%d questions in %.2f s: %.0f questions/s, %.1f characters each%n",
+                questions, seconds, questions / seconds, (double) characters / questions);
+        System.out.printf("heap after gc %d KB before, %d KB after (checksum %d)%n",
+                heapBefore / 1024, heapAfter / 1024, checksum);
+    }
+}
@@ -2,18 +2,26 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
 import java.awt.Desktop;
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Paths;
+import java.util.Iterator;
 
 public class QuizController {
-    // Index to track the current question
-    private int currentQuestionIndex = 0;
-    // Questions and answers
-    private String[][] questions = {
-            {"2 + 2", "4"},
-            {"3 * 2", "6"},
-            {"10 - 5", "5"}
-    };
+    // Fonts of the question, the answer field and the feedback, loaded early by GameWarmup
+    static final Font QUESTION_FONT = new Font("Comic Sans MS", Font.BOLD, 18);
+    static final Font ANSWER_FONT = new Font("Comic Sans MS", Font.PLAIN, 16);
+    static final Font FEEDBACK_FONT = new Font("Comic Sans MS", Font.BOLD, 16);
+    // -Dquiz.bank=<file> asks random questions from a question bank forever instead of the normal three
+    private final String bankFile = System.getProperty("quiz.bank");
+    // -Dquiz.endless=true asks generated questions forever, in either endless mode only the current one is kept
+    private final boolean endless = Boolean.getBoolean("quiz.endless") || bankFile != null;
+    // Works out the right answer from the question's text, each question is parsed once
+    private final ExpressionCompiler compiler = new ExpressionCompiler(1024);
+    // The player's question, score and answer checking
+    private final QuizSession session;
 
     // Main frame for the GUI
     private JFrame frame;
@@ -29,21 +37,37 @@ public class QuizController {
     private JButton learnMoreButton;
     // Label to give feedback based on the user's answer
     private JLabel feedbackLabel;
+    // Timing for each answer check, F3 shows it and F4 saves it as CSV
+    private final FrameStats frameStats = new FrameStats("Math Quiz");
+    // Label that shows the timing when F3 is pressed
+    private JLabel statsLabel;
 
     // Constructor to set up the GUI
     public QuizController() {
+        session = bankFile != null ? new QuizSession(openBank(bankFile), compiler)
+                : endless ? QuizSession.endless(newGenerator(), compiler)
+                : QuizSession.fixed(compiler);
         frame = new JFrame("Math Quiz Game 🎮"); // Create a frame with a title
-        panel = new JPanel(); // Initialize the panel
+        panel = new JPanel() { // Initialize the panel
+            @Override
+            public void paint(Graphics g) {
+                frameStats.startPaint(); // The panel and every label on it
+                super.paint(g);
+                frameStats.endPaint();
+                frameStats.endFrame(endless ? 1 : QuizSession.FIXED_QUESTIONS.length - session.getAnswered()); // Questions held
+                GameWarmup.frameDrawn("Math Quiz"); // Times the first frame after the menu
+            }
+        };
         panel.setBackground(new Color(255, 255, 204)); // Set a light yellow background color for the panel
-        questionLabel = new JLabel("What's " + questions[currentQuestionIndex][0] + "?"); // Initialize the question label
-        questionLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 18)); // Set the font
+        questionLabel = new JLabel("What's " + session.getQuestion() + "?"); // Initialize the question label
+        questionLabel.setFont(QUESTION_FONT); // Set the font
         answerField = new JTextField(10); // Initialize the text field with a width of 10 columns
-        answerField.setFont(new Font("Comic Sans MS", Font.PLAIN, 16)); // Set the font of the answer field
+        answerField.setFont(ANSWER_FONT); // Set the font of the answer field
         submitButton = new JButton("Check Answer"); // Initialize the submit button
         learnMoreButton = new JButton("The Winner Button!"); // Initialize the "Learn More" button
         learnMoreButton.setEnabled(false); // Initially disable the "Learn More" button
         feedbackLabel = new JLabel(""); // Initialize the feedback label
-        feedbackLabel.setFont(new Font("Comic Sans MS", Font.BOLD, 16)); // Set the font of the feedback label
+        feedbackLabel.setFont(FEEDBACK_FONT); // Set the font of the feedback label
 
         // Add components to the panel
         panel.add(questionLabel);
@@ -51,13 +75,21 @@ public class QuizController {
         panel.add(submitButton);
         panel.add(feedbackLabel);
         panel.add(learnMoreButton);
+        statsLabel = new JLabel(); // Hidden until F3 is pressed
+        statsLabel.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+        statsLabel.setVisible(false);
+        panel.add(statsLabel);
         frame.add(panel);
+        addStatsKeys(); // F3 and F4 for the timing stats
 
         // Add action listener to the submit button
         submitButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
+                frameStats.startUpdate();
                 checkAnswer(); // Check the user's answer when the button is clicked
+                frameStats.endUpdate(); // Counted in the frame that paints the result
+                updateStatsLabel();
             }
         });
 
@@ -77,11 +109,12 @@ public class QuizController {
     // Method to check the user's answer
     private void checkAnswer() {
         String userAnswer = answerField.getText().trim(); // Get the text from the answer field and trim whitespace
-        if (userAnswer.equals(questions[currentQuestionIndex][1])) { // If the answer is correct
-            currentQuestionIndex++; // Increment to the next question
-            if (currentQuestionIndex < questions.length) { // If there are more questions
-                questionLabel.setText("What's " + questions[currentQuestionIndex][0] + "?"); // Update the question label
-                feedbackLabel.setText("<html>Correct! Awesome job! Next question:</html>"); // Set feedback message
+        if (session.answer(userAnswer)) { // If the answer is correct, "4.0", "04" and "2+2" count as 4
+            if (!session.isFinished()) { // If there are more questions
+                questionLabel.setText("What's " + session.getQuestion() + "?"); // Update the question label
+                feedbackLabel.setText(endless
+                        ? "<html>Correct! That's " + session.getAnswered() + " answered. Next question:</html>"
+                        : "<html>Correct! Awesome job! Next question:</html>"); // Set feedback message
             } else {
                 feedbackLabel.setText("<html>Yay! You've completed all questions! Click the winner button!</html>"); // Set completion message
                 submitButton.setEnabled(false); // Disable the submit button
@@ -93,6 +126,52 @@ public class QuizController {
         answerField.setText(""); // Clear the answer field
     }
 
+    // Generator for endless mode, -Dquiz.seed, -Dquiz.operators, -Dquiz.maxOperand and -Dquiz.maxDepth tune it
+    private static QuestionGenerator newGenerator() {
+        QuestionGenerator generator = new QuestionGenerator(Long.getLong("quiz.seed", System.nanoTime()));
+        generator.setOperators(System.getProperty("quiz.operators", QuestionGenerator.ALL_OPERATORS));
+        generator.setOperandRange(1, Integer.getInteger("quiz.maxOperand", 20));
+        generator.setMaxDepth(Integer.getInteger("quiz.maxDepth", 2));
+        return generator;
+    }
+
+    // Random questions from a bank file, read from the mapped file one at a time; -Dquiz.seed picks the order
+    private static Iterator<String> openBank(String file) {
+        try {
+            return QuestionBank.open(Paths.get(file)).randomOrder(Long.getLong("quiz.seed", System.nanoTime()));
+        } catch (IOException e) {
+            throw new IllegalStateException("can't open question bank " + file, e);
+        }
+    }
+
+    // F3 shows or hides the timing stats, F4 writes them to a CSV file
+    private void addStatsKeys() {
+        JRootPane root = frame.getRootPane();
+        root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "toggleStats");
+        root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_F4, 0), "exportStats");
+        root.getActionMap().put("toggleStats", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                frameStats.toggleOverlay();
+                updateStatsLabel();
+            }
+        });
+        root.getActionMap().put("exportStats", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                frameStats.exportCsv();
+            }
+        });
+    }
+
+    // Copies the p50/p99/max table into the stats label when it is showing
+    private void updateStatsLabel() {
+        statsLabel.setVisible(frameStats.isOverlayVisible());
+        if (frameStats.isOverlayVisible()) {
+            statsLabel.setText("<html><pre>" + String.join("<br>", frameStats.summaryLines()) + "</pre></html>");
+        }
+    }
+
     // Open the URL link
     private void openWebPage(String url) {
         try {
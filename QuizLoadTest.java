@@ -0,0 +1,204 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// opens many quiz sessions on a QuizServer over loopback, one virtual thread per simulated player,
+// and has every player answer question after question until time is up
+// reports requests per second and the latency of answer requests at p50/p99/max; at most
+// <connections> requests are in flight at once, like players sharing a server's connection limit,
+// while every session stays open on the server the whole time
+// latency is reported twice: what a player waits, from wanting to send until the reply, which
+// includes queueing for a connection slot, and what the server takes once the request has a slot;
+// timing only the second would leave out the queue every player stands in
+// without a host it starts a QuizServer in this process first
+// usage: java QuizLoadTest [sessions] [seconds] [connections] [host port]
+public class QuizLoadTest {
+    private static final int STRIPES = 64; // latency histograms, so players rarely wait on each other to record
+    private static final double WRONG_ANSWERS = 0.05; // share of answers given wrong on purpose
+
+    private final HttpClient client;
+    private final URI base;
+    private final Semaphore inFlight;
+    private final LatencyHistogram[] latencies = new LatencyHistogram[STRIPES]; // queueing for a slot included
+    private final LatencyHistogram[] serviceLatencies = new LatencyHistogram[STRIPES]; // from getting a slot
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong correct = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    QuizLoadTest(HttpClient client, URI base, int connections) {
+        this.client = client;
+        this.base = base;
+        this.inFlight = new Semaphore(connections);
+        for (int i = 0; i < STRIPES; i++) {
+            latencies[i] = new LatencyHistogram();
+            serviceLatencies[i] = new LatencyHistogram();
+        }
+    }
+
+    // one request, timed from when the player wants to send it and from when it gets a connection slot,
+    // to when the reply is read
+    private HttpResponse<String> send(HttpRequest request, int player) throws IOException, InterruptedException {
+        long queued = System.nanoTime();
+        inFlight.acquire();
+        try {
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            long end = System.nanoTime();
+            LatencyHistogram histogram = latencies[player % STRIPES];
+            synchronized (histogram) { // guards the stripe's service histogram too
+                histogram.record(end - queued);
+                serviceLatencies[player % STRIPES].record(end - start);
+            }
+            requests.incrementAndGet();
+            return response;
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    // the session's id, or null when the server would not make one
+    String createSession(int player) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(base.resolve("/sessions?mode=endless"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), player);
+        if (response.statusCode() != 201) {
+            failures.incrementAndGet();
+            return null;
+        }
+        return field(response.body(), "id");
+    }
+
+    // answers until the deadline, working each answer out the way a player would
+    void play(int player, String id, long deadline) throws IOException, InterruptedException {
+        URI answerUri = base.resolve("/sessions/" + id + "/answer");
+        String question = field(send(HttpRequest.newBuilder(base.resolve("/sessions/" + id)).GET().build(), player).body(), "question");
+        while (question != null && System.nanoTime() < deadline) {
+            long answer = Math.round(ExpressionCompiler.parse(question).evaluate());
+            boolean wrong = ThreadLocalRandom.current().nextDouble() < WRONG_ANSWERS;
+            HttpResponse<String> response = send(HttpRequest.newBuilder(answerUri)
+                    .POST(HttpRequest.BodyPublishers.ofString(Long.toString(wrong ? answer + 1 : answer))).build(), player);
+            if (response.statusCode() != 200 || response.body().contains("\"correct\": true") == wrong) {
+                failures.incrementAndGet(); // evicted, or the server judged the answer the wrong way
+                return;
+            }
+            if (!wrong) {
+                correct.incrementAndGet();
+            }
+            question = field(response.body(), "question");
+        }
+    }
+
+    // a string field of a flat JSON reply, null when it is missing or null
+    static String field(String json, String name) {
+        int at = json.indexOf("\"" + name + "\": ");
+        if (at < 0) {
+            return null;
+        }
+        int start = at + name.length() + 4;
+        if (json.startsWith("null", start)) {
+            return null;
+        }
+        StringBuilder value = new StringBuilder();
+        for (int i = start + 1; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c == '\\') {
+                c = json.charAt(++i);
+                if (c == 'u') {
+                    c = (char) Integer.parseInt(json.substring(i + 1, i + 5), 16);
+                    i += 4;
+                }
+            } else if (c == '"') {
+                break;
+            }
+            value.append(c);
+        }
+        return value.toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+        QuizServer localServer = null;
+        URI base;
+        if (args.length > 4) {
+            base = URI.create("http://" + args[3] + ":" + args[4]);
+        } else {
+            QuizServer.useNoDelay(); // before the built-in server's classes read it
+            localServer = new QuizServer(0, 600_000_000_000L, sessions * 2, null);
+            localServer.start();
+            base = URI.create("http://127.0.0.1:" + localServer.getPort());
+        }
+
+        ExecutorService players = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(players).build();
+        QuizLoadTest test = new QuizLoadTest(client, base, connections);
+        System.out.println("Opening " + sessions + " sessions on " + base + " with up to " + connections + " requests in flight");
+
+        // every session is opened before any is played, so they are all live together
+        String[] ids = new String[sessions];
+        List<Future<?>> opening = new ArrayList<>();
+        for (int p = 0; p < sessions; p++) {
+            int player = p;
+            opening.add(players.submit(() -> {
+                ids[player] = test.createSession(player);
+                return null;
+            }));
+        }
+        for (Future<?> future : opening) {
+            future.get();
+        }
+        HttpResponse<String> stats = client.send(HttpRequest.newBuilder(base.resolve("/stats")).GET().build(), HttpResponse.BodyHandlers.ofString());
+        System.out.println("Server stats after opening: " + stats.body());
+        for (int i = 0; i < STRIPES; i++) {
+            test.latencies[i].reset();
+            test.serviceLatencies[i].reset();
+        }
+        test.requests.set(0);
+
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+        List<Future<?>> playing = new ArrayList<>();
+        for (int p = 0; p < sessions; p++) {
+            int player = p;
+            if (ids[player] != null) {
+                playing.add(players.submit(() -> {
+                    test.play(player, ids[player], deadline);
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> future : playing) {
+            future.get();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        LatencyHistogram all = new LatencyHistogram();
+        LatencyHistogram service = new LatencyHistogram();
+        for (int i = 0; i < STRIPES; i++) {
+            all.add(test.latencies[i]);
+            service.add(test.serviceLatencies[i]);
+        }
+        stats = client.send(HttpRequest.newBuilder(base.resolve("/stats")).GET().build(), HttpResponse.BodyHandlers.ofString());
+        System.out.printf("%d sessions played for %.1f s: %d requests, %.0f requests/s, %d correct answers, %d failures%n",
+                playing.size(), elapsed, test.requests.get(), test.requests.get() / elapsed, test.correct.get(), test.failures.get());
+        System.out.printf("player latency p50 %.2f ms, p99 %.2f ms, max %.2f ms (waiting for one of %d connections included)%n",
+                all.percentile(50) / 1e6, all.percentile(99) / 1e6, all.getMax() / 1e6, connections);
+        System.out.printf("server latency p50 %.2f ms, p99 %.2f ms, max %.2f ms (once a connection is free)%n",
+                service.percentile(50) / 1e6, service.percentile(99) / 1e6, service.getMax() / 1e6);
+        System.out.println("Server stats after playing: " + stats.body());
+        players.shutdownNow();
+        if (localServer != null) {
+            localServer.stop();
+        }
+    }
+}
@@ -0,0 +1,291 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// quiz sessions over a small local HTTP API, on the JDK's built-in server with one virtual thread per
+// request; sessions live in a concurrent map and are dropped after sitting idle for a while
+//   POST   /sessions?mode=fixed|endless|bank  new session       201 {"id", "question"}
+//   GET    /sessions/<id>                      where it stands   200 {"question", "answered", "wrong", "finished"}
+//   POST   /sessions/<id>/answer               body is the typed answer
+//                                                                200 {"correct", "question", "answered", "finished"}
+//   DELETE /sessions/<id>                      end it            204
+//   GET    /stats                                                200 {"sessions", "created", "evicted", "requests"}
+// replies are JSON; a finished session's question is null; a request that fails inside the server
+// gets 500 {"error"} and is logged, the server and the other sessions carry on
+// there is no authentication, so it listens on loopback only; -Dquiz.bind=<address> listens on another
+// interface for a trusted network
+// usage: java QuizServer [port] [idleSeconds] [maxSessions] [bank file]
+public class QuizServer {
+    public static final int DEFAULT_PORT = 8080;
+    private static final int MAX_BODY_BYTES = 256; // far longer than any typed answer
+    private static final int COMPILER_CACHE = 1 << 16;
+
+    // a session and when it was last used, for eviction
+    private static class Entry {
+        final QuizSession session;
+        volatile long lastUsed;
+
+        Entry(QuizSession session) {
+            this.session = session;
+            this.lastUsed = System.nanoTime();
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService requests;
+    private final ScheduledExecutorService evictor;
+    private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+    private final ExpressionCompiler compiler = new ExpressionCompiler(COMPILER_CACHE); // shared by every session
+    private final QuestionBank bank; // null when there is no bank
+    private final long idleNanos;
+    private final int maxSessions;
+    private final AtomicInteger reserved = new AtomicInteger(); // sessions held or being created, at most maxSessions
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong requestCount = new AtomicLong();
+
+    // replies are small and written as headers then body; with Nagle on, each one waits out the client's
+    // delayed ACK (about 40 ms), so the built-in server must be told to set TCP_NODELAY; the setting is
+    // JVM-wide and read once, so the programs that serve quizzes call this first thing in main, unless
+    // -Dsun.net.httpserver.nodelay was given on the command line
+    static void useNoDelay() {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    // listens on loopback
+    public QuizServer(int port, long idleNanos, int maxSessions, QuestionBank bank) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port, idleNanos, maxSessions, bank);
+    }
+
+    public QuizServer(InetAddress address, int port, long idleNanos, int maxSessions, QuestionBank bank) throws IOException {
+        this.idleNanos = idleNanos;
+        this.maxSessions = maxSessions;
+        this.bank = bank;
+        server = HttpServer.create(new InetSocketAddress(address, port), 4096);
+        requests = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(requests);
+        server.createContext("/sessions", this::handleSessions);
+        server.createContext("/stats", this::handleStats);
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quiz-session-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepNanos = Math.max(idleNanos / 4, TimeUnit.MILLISECONDS.toNanos(100));
+        evictor.scheduleWithFixedDelay(this::evictIdle, sweepNanos, sweepNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        evictor.shutdownNow();
+        requests.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    // drops every session nobody has used for idleNanos
+    private void evictIdle() {
+        long now = System.nanoTime();
+        sessions.values().removeIf(entry -> {
+            if (now - entry.lastUsed > idleNanos) {
+                evicted.incrementAndGet();
+                reserved.decrementAndGet();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private void handleSessions(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().split("/"); // "", "sessions", id, "answer"
+            if (path.length == 2 && method.equals("POST")) {
+                create(exchange);
+                return;
+            }
+            if (path.length < 3 || path.length > 4 || (path.length == 4 && !path[3].equals("answer"))) {
+                reply(exchange, 404, "{\"error\": \"no such path\"}");
+                return;
+            }
+            Entry entry = sessions.get(path[2]);
+            if (entry == null) {
+                reply(exchange, 404, "{\"error\": \"no such session\"}");
+                return;
+            }
+            entry.lastUsed = System.nanoTime();
+            QuizSession session = entry.session;
+            if (path.length == 4 && method.equals("POST")) {
+                String typed = readBody(exchange);
+                if (typed == null) {
+                    reply(exchange, 413, "{\"error\": \"answer too long\"}");
+                    return;
+                }
+                String reply;
+                synchronized (session) { // the reply describes the state this answer left
+                    boolean correct = session.answer(typed);
+                    reply = "{\"correct\": " + correct + ", \"question\": " + json(session.getQuestion())
+                            + ", \"answered\": " + session.getAnswered() + ", \"finished\": " + session.isFinished() + "}";
+                }
+                reply(exchange, 200, reply);
+            } else if (path.length == 3 && method.equals("GET")) {
+                String reply;
+                synchronized (session) {
+                    reply = "{\"question\": " + json(session.getQuestion()) + ", \"answered\": " + session.getAnswered()
+                            + ", \"wrong\": " + session.getWrong() + ", \"finished\": " + session.isFinished() + "}";
+                }
+                reply(exchange, 200, reply);
+            } else if (path.length == 3 && method.equals("DELETE")) {
+                if (sessions.remove(path[2]) != null) { // the evictor or another DELETE may have got there first
+                    reserved.decrementAndGet();
+                }
+                exchange.sendResponseHeaders(204, -1);
+            } else {
+                reply(exchange, 405, "{\"error\": \"method not allowed\"}");
+            }
+        } catch (RuntimeException ex) {
+            System.err.println("Quiz request " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed: " + ex);
+            if (exchange.getResponseCode() == -1) { // nothing sent yet, so the client can still be told
+                reply(exchange, 500, "{\"error\": \"internal error\"}");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void create(HttpExchange exchange) throws IOException {
+        String mode = queryValue(exchange.getRequestURI(), "mode", "endless");
+        QuizSession session;
+        switch (mode) {
+            case "fixed":
+                session = QuizSession.fixed(compiler);
+                break;
+            case "endless":
+                session = QuizSession.endless(new QuestionGenerator(ThreadLocalRandom.current().nextLong()), compiler);
+                break;
+            case "bank":
+                if (bank == null) {
+                    reply(exchange, 400, "{\"error\": \"this server has no question bank\"}");
+                    return;
+                }
+                session = new QuizSession(bank.randomOrder(ThreadLocalRandom.current().nextLong()), compiler);
+                break;
+            default:
+                reply(exchange, 400, "{\"error\": \"mode must be fixed, endless or bank\"}");
+                return;
+        }
+        // the place is taken before the session goes in, so creates racing each other can't overshoot
+        if (reserved.incrementAndGet() > maxSessions) {
+            reserved.decrementAndGet();
+            reply(exchange, 503, "{\"error\": \"too many sessions\"}");
+            return;
+        }
+        String id;
+        do {
+            id = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        } while (sessions.putIfAbsent(id, new Entry(session)) != null);
+        created.incrementAndGet();
+        reply(exchange, 201, "{\"id\": " + json(id) + ", \"question\": " + json(session.getQuestion()) + "}");
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            reply(exchange, 200, "{\"sessions\": " + sessions.size() + ", \"created\": " + created.get()
+                    + ", \"evicted\": " + evicted.get() + ", \"requests\": " + requestCount.get() + "}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void reply(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // the request body as text, or null when it is longer than MAX_BODY_BYTES
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            return body.length > MAX_BODY_BYTES ? null : new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String queryValue(URI uri, String name, String otherwise) {
+        String query = uri.getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                if (pair.startsWith(name + "=")) {
+                    return pair.substring(name.length() + 1);
+                }
+            }
+        }
+        return otherwise;
+    }
+
+    // a JSON string, or null
+    static String json(String text) {
+        if (text == null) {
+            return "null";
+        }
+        StringBuilder out = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        useNoDelay();
+        InetAddress address = InetAddress.getByName(System.getProperty("quiz.bind", InetAddress.getLoopbackAddress().getHostAddress()));
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        long idleSeconds = args.length > 1 ? Long.parseLong(args[1]) : 300;
+        int maxSessions = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        QuestionBank bank = args.length > 3 ? QuestionBank.open(Paths.get(args[3])) : null;
+        QuizServer server = new QuizServer(address, port, TimeUnit.SECONDS.toNanos(idleSeconds), maxSessions, bank);
+        server.start();
+        System.out.println("Quiz server on " + address.getHostAddress() + " port " + server.getPort() + ", up to " + maxSessions
+                + " sessions, idle ones dropped after " + idleSeconds + " s" + (bank != null ? ", " + bank.size() + " banked questions" : ""));
+    }
+}
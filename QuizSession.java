@@ -0,0 +1,66 @@
+import java.util.Arrays;
+import java.util.Iterator;
+
+// one player's way through the quiz, with no Swing in it: the question being asked, how many have been
+// answered, and checking a typed answer; QuizController shows one session in a window and QuizServer
+// keeps many of them for HTTP clients
+// the right answer is worked out from the question's text by the shared ExpressionCompiler
+// methods are synchronized so two requests for the same session can't both take the next question
+public class QuizSession {
+    // questions for the normal game
+    public static final String[] FIXED_QUESTIONS = {"2 + 2", "3 * 2", "10 - 5"};
+
+    private final Iterator<String> questions;
+    private final ExpressionCompiler compiler;
+    private String currentQuestion;
+    private int answered = 0;
+    private int wrong = 0;
+
+    public QuizSession(Iterator<String> questions, ExpressionCompiler compiler) {
+        this.questions = questions;
+        this.compiler = compiler;
+        this.currentQuestion = questions.hasNext() ? questions.next() : null;
+    }
+
+    // the original three questions, then the session is finished
+    public static QuizSession fixed(ExpressionCompiler compiler) {
+        return new QuizSession(Arrays.asList(FIXED_QUESTIONS).iterator(), compiler);
+    }
+
+    // generated questions that never run out
+    public static QuizSession endless(QuestionGenerator generator, ExpressionCompiler compiler) {
+        return new QuizSession(generator.stream().map(question -> question.text).iterator(), compiler);
+    }
+
+    // the question being asked, or null once every question is answered
+    public synchronized String getQuestion() {
+        return currentQuestion;
+    }
+
+    // checks a typed answer, "4.0", " 04" and "2+2" all count as 4; a right one moves on to the next question
+    public synchronized boolean answer(String typed) {
+        if (currentQuestion == null) {
+            return false;
+        }
+        double expected = compiler.evaluate(currentQuestion);
+        if (!ExpressionCompiler.matches(typed.trim(), expected)) {
+            wrong++;
+            return false;
+        }
+        answered++;
+        currentQuestion = questions.hasNext() ? questions.next() : null; // made or read only now in endless modes
+        return true;
+    }
+
+    public synchronized boolean isFinished() {
+        return currentQuestion == null;
+    }
+
+    public synchronized int getAnswered() {
+        return answered;
+    }
+
+    public synchronized int getWrong() {
+        return wrong;
+    }
+}
@@ -0,0 +1,305 @@
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+// draws the games headless into images at fixed states, with the same renderers the windows use
+// (ShooterRenderer and ShapeMatcherScene), and checks them against golden PNGs, or times them
+//   check   compares every scene with golden/<scene>.png; a failing scene's image and a diff of it
+//           are written to build/render-check, and the exit status is 1
+//   update  writes the golden images again, after a change to how the games look
+//   bench   draws each scene over and over for [seconds] and reports frames per second; with a
+//           baseline file it fails when a scene is under half its baseline frame rate, and writes the
+//           file when there is none yet, so keep one baseline per machine
+// a pixel counts as different when a channel is off by more than CHANNEL_TOLERANCE, and a scene
+// fails when more than MAX_DIFFERENT of its pixels are, which lets text rasterize a little differently
+// -Drender.golden=<dir> and -Drender.out=<dir> move the golden and failure directories
+// usage: java RenderCheck [check|update|bench] [seconds] [baseline file]
+public class RenderCheck {
+    private static final int CHANNEL_TOLERANCE = 24;
+    private static final double MAX_DIFFERENT = 0.002; // share of a scene's pixels
+    private static final double MIN_FPS_RATIO = 0.5; // of the baseline frame rate
+    private static final long SHOOTER_SEED = 42;
+    private static final int SHOOTER_TICKS = 250; // far enough in for obstacles, shots and prompts
+    private static final int SHOOTER_BANNERS = 3; // as many as NotificationQueue shows at once
+
+    static {
+        // before anything touches AWT, so no display is ever looked for
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    // a fixed game state and the drawing of it
+    private interface Scene {
+        String name();
+
+        BufferedImage newImage();
+
+        void draw(Graphics2D g);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String mode = args.length > 0 ? args[0] : "check";
+        Path golden = Paths.get(System.getProperty("render.golden", "golden"));
+        Path out = Paths.get(System.getProperty("render.out", "build/render-check"));
+        List<Scene> scenes = scenes();
+        boolean ok;
+        switch (mode) {
+            case "check":
+                ok = check(scenes, golden, out);
+                break;
+            case "update":
+                update(scenes, golden);
+                ok = true;
+                break;
+            case "bench":
+                double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 3;
+                ok = bench(scenes, seconds, args.length > 2 ? Paths.get(args[2]) : null);
+                break;
+            default:
+                System.err.println("usage: java RenderCheck [check|update|bench] [seconds] [baseline file]");
+                ok = false;
+        }
+        System.exit(ok ? 0 : 1);
+    }
+
+    static List<Scene> scenes() {
+        SpriteAtlas atlas = SpriteAtlas.load(null, ShapeShooterEngine.OBSTACLE_WIDTH, ShapeShooterEngine.OBSTACLE_HEIGHT,
+                ShapeShooterEngine.PLAYER_WIDTH, ShapeShooterEngine.PLAYER_HEIGHT);
+        if (!atlas.getMissing().isEmpty()) {
+            // placeholders would be compared against real sprites, which says nothing about the renderer
+            throw new IllegalStateException("sprites missing, run from the game directory: " + atlas.getMissing());
+        }
+        List<Scene> scenes = new ArrayList<>();
+        scenes.add(shooterScene("shooter-start", atlas, 0, 0, null));
+        scenes.add(shooterScene("shooter-play", atlas, SHOOTER_TICKS, 0, null));
+        scenes.add(shooterScene("shooter-active", atlas, SHOOTER_TICKS, 0.5, "Correct!")); // canvas mode, HUD drawn in
+        String[] difficulties = {"easy", "normal", "hard"};
+        for (int difficulty = ShapeCatalog.EASY; difficulty <= ShapeCatalog.HARD; difficulty++) {
+            scenes.add(matcherScene("matcher-" + difficulties[difficulty], difficulty, difficulty));
+        }
+        return scenes;
+    }
+
+    // a seeded game played for some ticks with a scripted player, then held there
+    private static Scene shooterScene(String name, SpriteAtlas atlas, int ticks, double alpha, String status) {
+        ArrayDeque<String> banners = new ArrayDeque<>(); // the newest messages, shown again every frame
+        ShapeShooterEngine engine = new ShapeShooterEngine(SHOOTER_SEED, new ShapeShooterEngine.Listener() {
+            @Override
+            public void onMessage(String message) {
+                if (banners.size() == SHOOTER_BANNERS) {
+                    banners.removeFirst();
+                }
+                banners.addLast(message);
+            }
+
+            @Override
+            public void onCorrect() {
+            }
+
+            @Override
+            public void onLevelChanged(int level) {
+            }
+        });
+        engine.setObstacleMasks(atlas.getShapeMasks());
+        int input = ShapeShooterEngine.INPUT_RIGHT;
+        for (int i = 0; i < ticks; i++) {
+            // sweeps the player across the screen and fires as fast as the gun allows
+            if (engine.getPlayerX() <= 0) {
+                input = ShapeShooterEngine.INPUT_RIGHT;
+            } else if (engine.getPlayerX() >= ShapeShooterEngine.WIDTH - ShapeShooterEngine.PLAYER_WIDTH) {
+                input = ShapeShooterEngine.INPUT_LEFT;
+            }
+            engine.tick(i % 5 == 0 ? input | ShapeShooterEngine.INPUT_FIRE : input);
+        }
+        NotificationQueue notifications = new NotificationQueue();
+        ShooterRenderer renderer = new ShooterRenderer(atlas, notifications);
+        return new Scene() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public BufferedImage newImage() {
+                return new BufferedImage(ShooterRenderer.WIDTH, ShooterRenderer.HEIGHT, BufferedImage.TYPE_INT_RGB);
+            }
+
+            @Override
+            public void draw(Graphics2D g) {
+                for (String banner : banners) {
+                    notifications.post(banner); // banners expire by the clock, this keeps the same ones up however long a run is
+                }
+                renderer.draw(g, engine, alpha, status);
+            }
+        };
+    }
+
+    // a seeded shape at one difficulty on the game panel's background
+    private static Scene matcherScene(String name, int difficulty, long seed) {
+        ShapeMatcherScene scene = new ShapeMatcherScene(ShapeCatalog.standard().forDifficulty(difficulty),
+                new ShapeSpriteCache(null, GameWarmup.MATCHER_SPRITE_CAPACITY), new Random(seed));
+        scene.pickRandomShape();
+        return new Scene() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public BufferedImage newImage() {
+                return ShapeMatcherScene.newPanelImage();
+            }
+
+            @Override
+            public void draw(Graphics2D g) {
+                ShapeMatcherScene.paintBackground(g); // what the panel clears to before painting
+                scene.paint(g);
+            }
+        };
+    }
+
+    private static BufferedImage render(Scene scene) {
+        BufferedImage image = scene.newImage();
+        Graphics2D g = image.createGraphics();
+        try {
+            scene.draw(g);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static boolean check(List<Scene> scenes, Path golden, Path out) throws IOException {
+        int failed = 0;
+        for (Scene scene : scenes) {
+            File goldenFile = golden.resolve(scene.name() + ".png").toFile();
+            BufferedImage actual = render(scene);
+            if (!goldenFile.isFile()) {
+                System.out.println(scene.name() + ": no golden image at " + goldenFile + ", run RenderCheck update");
+                failed++;
+                continue;
+            }
+            BufferedImage expected = ImageIO.read(goldenFile);
+            if (expected.getWidth() != actual.getWidth() || expected.getHeight() != actual.getHeight()) {
+                System.out.println(scene.name() + ": is " + actual.getWidth() + "x" + actual.getHeight()
+                        + ", golden image is " + expected.getWidth() + "x" + expected.getHeight());
+                failed++;
+                continue;
+            }
+            BufferedImage diff = new BufferedImage(actual.getWidth(), actual.getHeight(), BufferedImage.TYPE_INT_RGB);
+            long different = compare(expected, actual, diff);
+            long allowed = (long) (MAX_DIFFERENT * actual.getWidth() * actual.getHeight());
+            if (different > allowed) {
+                Files.createDirectories(out);
+                ImageIO.write(actual, "png", out.resolve(scene.name() + ".png").toFile());
+                ImageIO.write(diff, "png", out.resolve(scene.name() + "-diff.png").toFile());
+                System.out.println(scene.name() + ": FAILED, " + different + " pixels differ (" + allowed
+                        + " allowed), image and diff in " + out);
+                failed++;
+            } else {
+                System.out.println(scene.name() + ": ok, " + different + " pixels differ");
+            }
+        }
+        System.out.println((scenes.size() - failed) + " of " + scenes.size() + " scenes match");
+        return failed == 0;
+    }
+
+    // counts pixels off by more than CHANNEL_TOLERANCE in any channel and marks them red in diff,
+    // everything else is drawn faded so the differences stand out
+    static long compare(BufferedImage expected, BufferedImage actual, BufferedImage diff) {
+        long different = 0;
+        for (int y = 0; y < actual.getHeight(); y++) {
+            for (int x = 0; x < actual.getWidth(); x++) {
+                int a = expected.getRGB(x, y);
+                int b = actual.getRGB(x, y);
+                int delta = Math.max(Math.abs(((a >> 16) & 0xFF) - ((b >> 16) & 0xFF)),
+                        Math.max(Math.abs(((a >> 8) & 0xFF) - ((b >> 8) & 0xFF)), Math.abs((a & 0xFF) - (b & 0xFF))));
+                if (delta > CHANNEL_TOLERANCE) {
+                    different++;
+                    diff.setRGB(x, y, 0xFF0000);
+                } else {
+                    diff.setRGB(x, y, (b >> 2) & 0x3F3F3F | 0xC0C0C0);
+                }
+            }
+        }
+        return different;
+    }
+
+    private static void update(List<Scene> scenes, Path golden) throws IOException {
+        Files.createDirectories(golden);
+        for (Scene scene : scenes) {
+            Path file = golden.resolve(scene.name() + ".png");
+            ImageIO.write(render(scene), "png", file.toFile());
+            System.out.println("wrote " + file);
+        }
+    }
+
+    // frames per second of each scene drawn again and again into the same image
+    private static boolean bench(List<Scene> scenes, double seconds, Path baselineFile) throws IOException {
+        Properties baseline = new Properties();
+        boolean compare = baselineFile != null && Files.isRegularFile(baselineFile);
+        if (compare) {
+            try (Reader in = Files.newBufferedReader(baselineFile, StandardCharsets.UTF_8)) {
+                baseline.load(in);
+            }
+        }
+        Properties measured = new Properties();
+        boolean ok = true;
+        System.out.println(String.format("%-16s %10s %10s %10s %10s", "scene", "fps", "p50 ms", "p99 ms", "baseline"));
+        for (Scene scene : scenes) {
+            BufferedImage image = scene.newImage();
+            Graphics2D g = image.createGraphics();
+            LatencyHistogram frames = new LatencyHistogram();
+            long elapsed;
+            try {
+                long warmupEnd = System.nanoTime() + (long) (Math.min(1, seconds / 2) * 1e9);
+                while (System.nanoTime() < warmupEnd) {
+                    scene.draw(g); // compiled before it is timed
+                }
+                long start = System.nanoTime();
+                long end = start + (long) (seconds * 1e9);
+                long now = start;
+                while (now < end) {
+                    scene.draw(g);
+                    long drawn = System.nanoTime();
+                    frames.record(drawn - now);
+                    now = drawn;
+                }
+                elapsed = now - start;
+            } finally {
+                g.dispose();
+            }
+            double fps = frames.getCount() / (elapsed / 1e9);
+            measured.setProperty(scene.name(), String.format("%.1f", fps));
+            String expected = baseline.getProperty(scene.name());
+            String verdict = "";
+            if (expected != null && fps < Double.parseDouble(expected) * MIN_FPS_RATIO) {
+                verdict = "  SLOWER";
+                ok = false;
+            }
+            System.out.println(String.format("%-16s %10.1f %10.3f %10.3f %10s%s", scene.name(), fps,
+                    frames.percentile(50) / 1e6, frames.percentile(99) / 1e6, expected != null ? expected : "-", verdict));
+        }
+        if (baselineFile != null && !compare) {
+            try (Writer out = Files.newBufferedWriter(baselineFile, StandardCharsets.UTF_8)) {
+                measured.store(out, "RenderCheck bench frames per second, for this machine only");
+            }
+            System.out.println("baseline written to " + baselineFile);
+        } else if (!ok) {
+            System.out.println("some scenes are under " + (int) (MIN_FPS_RATIO * 100) + "% of their baseline frame rate");
+        }
+        return ok;
+    }
+}
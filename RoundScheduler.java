@@ -0,0 +1,82 @@
+// times shape matcher rounds with System.nanoTime() instead of counting whole-second timer ticks
+// a round starts when a shape is picked, its reaction clock starts when that shape is first painted,
+// and each correct answer's reaction time goes into a histogram for the shape that was shown
+// with adaptive rounds the round length follows the player: a smoothed reaction time times a margin,
+// never longer than the difficulty's round and never shorter than MIN_ROUND_NANOS
+public class RoundScheduler {
+    public static final long MIN_ROUND_NANOS = 1_000_000_000L;
+    private static final double ADAPTIVE_MARGIN = 2.5; // round length over the typical reaction time
+    private static final double SMOOTHING = 0.2; // weight of the newest reaction in the running average
+
+    private final long baseRoundNanos;
+    private final boolean adaptive;
+    private final LatencyHistogram[] reactions; // by shape id
+    private final long[] misses; // wrong answers by shape id
+    private long roundNanos;
+    private long roundStart;
+    private long shownAt;
+    private double smoothedReaction = 0;
+
+    public RoundScheduler(long baseRoundNanos, boolean adaptive, int shapeCount) {
+        this.baseRoundNanos = baseRoundNanos;
+        this.adaptive = adaptive;
+        this.roundNanos = baseRoundNanos;
+        reactions = new LatencyHistogram[shapeCount];
+        for (int i = 0; i < shapeCount; i++) {
+            reactions[i] = new LatencyHistogram();
+        }
+        misses = new long[shapeCount];
+    }
+
+    public void startRound(long now) {
+        roundStart = now;
+        shownAt = 0;
+    }
+
+    // call from paint; only the first paint of a round counts as the shape being shown
+    public void markShown(long now) {
+        if (shownAt == 0) {
+            shownAt = now;
+        }
+    }
+
+    public long remainingNanos(long now) {
+        return Math.max(0, roundStart + roundNanos - now);
+    }
+
+    public boolean isExpired(long now) {
+        return now - roundStart >= roundNanos;
+    }
+
+    // a correct answer: records the reaction time and, in adaptive mode, sets the next round's length
+    public long recordCorrect(int shapeId, long now) {
+        long reaction = now - (shownAt != 0 ? shownAt : roundStart);
+        reactions[shapeId].record(reaction);
+        smoothedReaction = smoothedReaction == 0 ? reaction
+                : smoothedReaction + SMOOTHING * (reaction - smoothedReaction);
+        if (adaptive) {
+            roundNanos = Math.max(MIN_ROUND_NANOS, Math.min(baseRoundNanos, (long) (smoothedReaction * ADAPTIVE_MARGIN)));
+        }
+        return reaction;
+    }
+
+    public void recordMiss(int shapeId) {
+        misses[shapeId]++;
+    }
+
+    public long getRoundNanos() {
+        return roundNanos;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public LatencyHistogram getReactions(int shapeId) {
+        return reactions[shapeId];
+    }
+
+    public long getMisses(int shapeId) {
+        return misses[shapeId];
+    }
+}
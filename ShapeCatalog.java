@@ -0,0 +1,126 @@
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// every shape the shape matcher can ask about, each one built once with its top-left corner at 0, 0
+// regular polygons of any number of sides and irregular ones from a list of points are made on demand,
+// and each difficulty adds more of them on top of the easier ones
+public class ShapeCatalog {
+    public static final int EASY = 0;
+    public static final int NORMAL = 1;
+    public static final int HARD = 2;
+
+    // a named shape and the first difficulty that uses it; id is its place in the catalog
+    public static class Entry {
+        public final int id;
+        public final String name;
+        public final Shape shape;
+        public final int difficulty;
+
+        Entry(int id, String name, Shape shape, int difficulty) {
+            this.id = id;
+            this.name = name;
+            this.shape = shape;
+            this.difficulty = difficulty;
+        }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    // the game's shapes: the original four, sized like before, then polygons for the harder levels
+    public static ShapeCatalog standard() {
+        int size = 100;
+        ShapeCatalog catalog = new ShapeCatalog();
+        catalog.add("Rectangle", new Rectangle2D.Float(0, 0, size * 2, size), EASY);
+        catalog.add("Circle", new Ellipse2D.Float(0, 0, size, size), EASY);
+        catalog.add("Square", new Rectangle2D.Float(0, 0, size, size), EASY);
+        catalog.add("Trapezoid", polygon(new double[]{0, 200, 150, 50}, new double[]{0, 0, size, size}), EASY);
+
+        catalog.add("Triangle", regularPolygon(3, size, size), NORMAL);
+        catalog.add("Pentagon", regularPolygon(5, size, size), NORMAL);
+        catalog.add("Hexagon", regularPolygon(6, size, size), NORMAL);
+        catalog.add("Parallelogram", polygon(new double[]{50, 200, 150, 0}, new double[]{0, 0, size, size}), NORMAL);
+
+        catalog.add("Heptagon", regularPolygon(7, size, size), HARD);
+        catalog.add("Octagon", regularPolygon(8, size, size), HARD);
+        catalog.add("Nonagon", regularPolygon(9, size, size), HARD);
+        catalog.add("Decagon", regularPolygon(10, size, size), HARD);
+        catalog.add("Rhombus", polygon(new double[]{60, 120, 60, 0}, new double[]{0, 50, 100, 50}), HARD);
+        catalog.add("Kite", polygon(new double[]{50, 100, 50, 0}, new double[]{0, 35, 100, 35}), HARD);
+        catalog.add("Star", star(5, size / 2.0, size / 5.0), HARD);
+        return catalog;
+    }
+
+    // adds a shape, it is moved so its bounds start at 0, 0
+    public Entry add(String name, Shape shape, int difficulty) {
+        Rectangle2D bounds = shape.getBounds2D();
+        Path2D.Double atOrigin = new Path2D.Double(shape);
+        atOrigin.transform(AffineTransform.getTranslateInstance(-bounds.getX(), -bounds.getY()));
+        Entry entry = new Entry(entries.size(), name, atOrigin, difficulty);
+        entries.add(entry);
+        return entry;
+    }
+
+    // shapes used at a difficulty, the easier levels' shapes included
+    public List<Entry> forDifficulty(int difficulty) {
+        List<Entry> result = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.difficulty <= difficulty) {
+                result.add(entry);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // regular polygon with a point at the top, stretched to fit width x height
+    public static Shape regularPolygon(int sides, double width, double height) {
+        if (sides < 3) {
+            throw new IllegalArgumentException("a polygon needs at least 3 sides, not " + sides);
+        }
+        double[] xs = new double[sides];
+        double[] ys = new double[sides];
+        for (int i = 0; i < sides; i++) {
+            double angle = -Math.PI / 2 + 2 * Math.PI * i / sides;
+            xs[i] = width / 2 * (1 + Math.cos(angle));
+            ys[i] = height / 2 * (1 + Math.sin(angle));
+        }
+        return polygon(xs, ys);
+    }
+
+    // star with the given number of points, alternating between the outer and inner radius
+    public static Shape star(int points, double outerRadius, double innerRadius) {
+        double[] xs = new double[points * 2];
+        double[] ys = new double[points * 2];
+        for (int i = 0; i < points * 2; i++) {
+            double radius = i % 2 == 0 ? outerRadius : innerRadius;
+            double angle = -Math.PI / 2 + Math.PI * i / points;
+            xs[i] = outerRadius + radius * Math.cos(angle);
+            ys[i] = outerRadius + radius * Math.sin(angle);
+        }
+        return polygon(xs, ys);
+    }
+
+    // any polygon, regular or not, from its corners in order
+    public static Shape polygon(double[] xs, double[] ys) {
+        Path2D.Double path = new Path2D.Double();
+        path.moveTo(xs[0], ys[0]);
+        for (int i = 1; i < xs.length; i++) {
+            path.lineTo(xs[i], ys[i]);
+        }
+        path.closePath();
+        return path;
+    }
+}
@@ -1,29 +1,44 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.geom.Ellipse2D;
-import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 //main class of the game extending JFrame to use swing components
 public class ShapeMatcherGame extends JFrame
 {
-    private Shape currentShape; //holds the currently displayed shape
+    private ShapeCatalog.Entry currentShape; //holds the currently displayed shape
     private String currentShapeType; //description of the current shape
+    private final ShapeCatalog catalog = ShapeCatalog.standard(); //every shape the game knows
+    private List<ShapeCatalog.Entry> roundShapes; //shapes used at the selected difficulty
+    private final ShapeSpriteCache sprites = GameWarmup.matcherSprites(); //prerendered shapes by shape and color, partly filled while the menu was open
     private JLabel statusLabel; //label to display messages like "Correct!" or "Try again!"
     private JLabel scoreLabel; //label to display the current score
     private JLabel timerLabel; //label to display the countdown timer
     private JLabel livesLabel; //label to display the number of remaining lives
     private GamePanel gamePanel; //custom panel for drawing shapes
-    private Timer timer; //timer for countdown in each round
+    private Timer timer; //repaints the countdown, the round itself is timed by rounds
+    private static final int COUNTDOWN_REFRESH_MILLIS = 50; //how often the countdown label is updated
     private int score = 0; //variable to keep track of the players score
     private int lives; //variable to keep track of the player's remaining lives
-    private int timeLeft; //variable to keep track of the time left for answering
+    private long roundNanos; //time to answer at the selected difficulty
+    private boolean adaptive; //rounds get shorter as the player gets faster
+    private RoundScheduler rounds; //round countdown and reaction times, in nanoseconds
+    private final FrameStats frameStats = new FrameStats("Shape Matcher"); //paint timing, F3 shows it and F4 saves a CSV
+    private final Map<String, JButton> answerButtons = new HashMap<>(); //answer buttons by shape name, for the bot
+    //-Dmatcher.moreShapes=true adds the catalog's polygons as the difficulty goes up, otherwise every difficulty uses the original four
+    static final boolean MORE_SHAPES = Boolean.getBoolean("matcher.moreShapes");
+    //-Dmatcher.palette=true picks colors from a few hues so every sprite stays cached, otherwise any RGB color like before
+    static final boolean PALETTE = Boolean.getBoolean("matcher.palette");
 
     //constructor to set up the game
     public ShapeMatcherGame()
     {
         selectDifficulty(); //prompts the user to select the difficulty
+        GameWarmup.choiceMade(); //the first frame is timed from the last menu the player answered
 
         this.setTitle("Shape Matching Game"); //sets the window title
         this.setSize(800, 600); //sets the window size
@@ -33,20 +48,20 @@ public class ShapeMatcherGame extends JFrame
         gamePanel = new GamePanel();
         this.add(gamePanel, BorderLayout.CENTER); //adds the panel for drawing shapes to the center
 
-        JPanel buttonPanel = new JPanel(); //panel for holding shape buttons
-        String[] shapes = {"Rectangle", "Circle", "Square", "Trapezoid"};
-        for (String shape : shapes)
+        JPanel buttonPanel = new JPanel(new GridLayout(0, Math.min(roundShapes.size(), 5))); //panel for holding shape buttons, wraps after 5
+        for (ShapeCatalog.Entry shape : roundShapes)
         {
-            JButton button = new JButton(shape);
+            JButton button = new JButton(shape.name);
             button.addActionListener(this::shapeButtonClicked); //adds action listener for button clicks
             buttonPanel.add(button); //adds each button to the panel
+            answerButtons.put(shape.name, button);
         }
         this.add(buttonPanel, BorderLayout.SOUTH); //moves buttons to the bottom for answer choices
 
         JPanel infoPanel = new JPanel(new GridLayout(1, 4)); //displays game info
         statusLabel = new JLabel("Choose the correct shape.", SwingConstants.CENTER);
         scoreLabel = new JLabel("Score: 0", SwingConstants.CENTER);
-        timerLabel = new JLabel("Time left: " + timeLeft + "s", SwingConstants.CENTER);
+        timerLabel = new JLabel(String.format("Time left: %.1fs", roundNanos / 1e9), SwingConstants.CENTER);
         livesLabel = new JLabel("Lives: " + lives, SwingConstants.CENTER);
 
         //labels for game info
@@ -56,34 +71,72 @@ public class ShapeMatcherGame extends JFrame
         infoPanel.add(livesLabel);
 
         this.add(infoPanel, BorderLayout.NORTH); //moves the game info to the top of the screen
+        addStatsKeys(); //F3 and F4 for the frame stats
+
 
         setupTimer(); //start timer
         this.setVisible(true);
+        if (Boolean.getBoolean("matcher.bot"))
+        {
+            startBot(Integer.getInteger("matcher.botDelayMillis", 300)); //-Dmatcher.bot=true plays by itself, for soak tests
+        }
+    }
+
+    //automated player: looks at the panel's pixels every delayMillis, recognises the shape and clicks its button
+    //the pixels are painted offscreen by the panel's scene, so frame stats, the reaction clock and the startup report only see real frames
+    private void startBot(int delayMillis)
+    {
+        ShapeRecognizer recognizer = new ShapeRecognizer(roundShapes);
+        Timer botTimer = new Timer(delayMillis, null);
+        botTimer.addActionListener(e -> {
+            if (!timer.isRunning())
+            {
+                botTimer.stop(); //game over
+                return;
+            }
+            BufferedImage screen = ShapeMatcherScene.newPanelImage();
+            Graphics2D g = screen.createGraphics();
+            ShapeMatcherScene.paintBackground(g);
+            gamePanel.scene.paint(g); //the same pixels the player sees, without counting as a frame on screen
+            g.dispose();
+            ShapeCatalog.Entry seen = recognizer.classify(screen);
+            if (seen != null)
+            {
+                answerButtons.get(seen.name).doClick();
+            }
+        });
+        botTimer.start();
     }
 
     //difficulty selector and dialog box
     private void selectDifficulty()
     {
-        String[] options = {"Easy", "Normal", "Hard"};
+        String[] options = {"Easy", "Normal", "Hard", "Adaptive"};
         int response = JOptionPane.showOptionDialog(null, "Select Difficulty", "Difficulty Selection",
                 JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE,
                 null, options, options[0]);
+        adaptive = response == 3; //rounds then get shorter as the player speeds up
         switch (response)
         {
             case 0: //easy difficulty
-                timeLeft = 10; //easy mode time
+                roundNanos = 10_000_000_000L; //easy mode time
                 lives = 5; //easy mode lives
+                roundShapes = catalog.forDifficulty(ShapeCatalog.EASY); //the original four shapes
                 break;
             case 2: //hard difficulty
-                timeLeft = 3; //hard mode time
+                roundNanos = 3_000_000_000L; //hard mode time
                 lives = 1; //hard mode lives
+                roundShapes = catalog.forDifficulty(MORE_SHAPES ? ShapeCatalog.HARD : ShapeCatalog.EASY); //every shape in the catalog when asked for
                 break;
             case 1: //normal difficulty
+            case 3: //adaptive difficulty, starts like normal and shortens rounds to fit the player
             default:
-                timeLeft = 5; //normal mode time
+                roundNanos = 5_000_000_000L; //normal mode time
                 lives = 3; //normal mode lives
+                roundShapes = catalog.forDifficulty(MORE_SHAPES ? ShapeCatalog.NORMAL : ShapeCatalog.EASY); //adds triangles and a few polygons when asked for
                 break;
         }
+        rounds = new RoundScheduler(roundNanos, adaptive, catalog.size());
     }
 
     //handles the shape button clicks to identify the shape
@@ -91,9 +144,11 @@ public class ShapeMatcherGame extends JFrame
     {
         if (!timer.isRunning()) return; //ignores clicks if the game is over
 
+        long now = System.nanoTime(); //taken first so the reaction time does not include our own work
         String selectedShape = ((JButton) e.getSource()).getText();
         if (selectedShape.equals(currentShapeType))
         {
+            rounds.recordCorrect(currentShape.id, now);
             score++;
             scoreLabel.setText("Score: " + score);
             statusLabel.setText("Correct! It's a " + currentShapeType + "!");
@@ -103,6 +158,7 @@ public class ShapeMatcherGame extends JFrame
 
         else
         {
+            rounds.recordMiss(currentShape.id);
             lives--;
             livesLabel.setText("Lives: " + lives);
             statusLabel.setText("Incorrect, try again!");
@@ -113,13 +169,15 @@ public class ShapeMatcherGame extends JFrame
         }
     }
 
-    //sets up the game timer with a 1 second delay between ticks
+    //starts the first round and a timer that refreshes the countdown several times a second
+    //the timer only displays and checks the time, rounds measures it, so late timer events cost no time
     private void setupTimer()
     {
-        timer = new Timer(1000, e -> {
-            timeLeft--;
-            timerLabel.setText("Time left: " + timeLeft + "s");
-            if (timeLeft <= 0)
+        rounds.startRound(System.nanoTime());
+        timer = new Timer(COUNTDOWN_REFRESH_MILLIS, e -> {
+            long now = System.nanoTime();
+            timerLabel.setText(String.format("Time left: %.1fs", rounds.remainingNanos(now) / 1e9));
+            if (rounds.isExpired(now))
             {
                 timer.stop();
                 gameOver("Time's up! Game Over!");
@@ -128,11 +186,11 @@ public class ShapeMatcherGame extends JFrame
         timer.start();
     }
 
-    //resets the timer for a new question
+    //starts a new round, its length comes from the difficulty or from the player's reaction times when adaptive
     private void resetTimer()
     {
-        timeLeft = 5; //resets the timer based on the selected difficulty
-        timer.restart();
+        rounds.startRound(System.nanoTime());
+        timerLabel.setText(String.format("Time left: %.1fs", rounds.getRoundNanos() / 1e9));
     }
 
     //ends the game and disables further interaction
@@ -141,6 +199,46 @@ public class ShapeMatcherGame extends JFrame
         statusLabel.setText(message);
         timer.stop();
         disableComponents(this.getContentPane()); //disables all components to prevent further interaction
+        printReactionTimes();
+    }
+
+    //per shape reaction times (shape shown to correct click) and misses, printed when the game ends
+    private void printReactionTimes()
+    {
+        System.out.println("Reaction times" + (adaptive ? String.format(" (last round %.2fs)", rounds.getRoundNanos() / 1e9) : "") + ":");
+        System.out.println(String.format("%-14s %6s %8s %8s %8s %6s", "shape", "hits", "p50 ms", "p90 ms", "max ms", "misses"));
+        for (ShapeCatalog.Entry shape : roundShapes)
+        {
+            LatencyHistogram reactions = rounds.getReactions(shape.id);
+            System.out.println(String.format("%-14s %6d %8.1f %8.1f %8.1f %6d", shape.name, reactions.getCount(),
+                    reactions.percentile(50) / 1e6, reactions.percentile(90) / 1e6, reactions.getMax() / 1e6,
+                    rounds.getMisses(shape.id)));
+        }
+    }
+
+    //F3 toggles the frame stats overlay and F4 exports them, bound on the window so the buttons can keep focus
+    private void addStatsKeys()
+    {
+        JRootPane root = this.getRootPane();
+        root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "toggleStats");
+        root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_F4, 0), "exportStats");
+        root.getActionMap().put("toggleStats", new AbstractAction()
+        {
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                frameStats.toggleOverlay();
+                gamePanel.repaint();
+            }
+        });
+        root.getActionMap().put("exportStats", new AbstractAction()
+        {
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                frameStats.exportCsv();
+            }
+        });
     }
 
     //disables all components in a container
@@ -159,57 +257,32 @@ public class ShapeMatcherGame extends JFrame
     //class for the panel where shapes are drawn
     class GamePanel extends JPanel
     {
-        private Color shapeColor; //color of the shapes
+        private final ShapeMatcherScene scene = new ShapeMatcherScene(roundShapes, sprites, new Random(), PALETTE); //the shape and its color, drawn without swing
 
         public GamePanel()
         {
-            this.setPreferredSize(new Dimension(600, 400)); //sets the preferred size for the panel
+            this.setPreferredSize(new Dimension(ShapeMatcherScene.PANEL_WIDTH, ShapeMatcherScene.PANEL_HEIGHT)); //sets the preferred size for the panel
             drawRandomShape(); //draws a random shape
         }
 
         @Override
         protected void paintComponent(Graphics g)
         {
+            frameStats.startPaint();
             super.paintComponent(g); //calls the method that handles basic painting
-            Graphics2D g2 = (Graphics2D) g; //sets the graphics object to Graphics2D
-            g2.setColor(shapeColor); //sets the color for drawing the shape
-            g2.fill(currentShape); //fills the shape with the set color
+            rounds.markShown(System.nanoTime()); //the reaction clock starts when the shape is first on screen
+            scene.paint(g); //rendered once per shape and color, blitted after that
+            frameStats.endPaint();
+            frameStats.drawOverlay(g, 5, 5);
+            frameStats.endFrame(1); //one shape on screen
+            GameWarmup.frameDrawn("Shape Matcher");
         }
 
         //randomly selects a shape and its color
         public void drawRandomShape()
         {
-            Random rand = new Random(); //creates a random generator
-            int shapeType = rand.nextInt(4); //generates a random integer to decide the shape
-            int x = 250; //x coordinate for the shape
-            int y = 150; //y coordinate for the shape
-            int size = 100; //size for the shape
-            shapeColor = new Color(rand.nextInt(256), rand.nextInt(256), rand.nextInt(256)); //random color for the shape
-
-            switch (shapeType)
-            {
-                case 0: //rectangle
-                    currentShape = new Rectangle2D.Float(x, y, size * 2, size); //creates the rectangle
-                    currentShapeType = "Rectangle"; //sets the shape type as rectangle for the answer
-                    break;
-                case 1: //circle
-                    currentShape = new Ellipse2D.Float(x, y, size, size); //creates the circle
-                    currentShapeType = "Circle"; //sets the shape type as circle for the answer
-                    break;
-                case 2: //square
-                    currentShape = new Rectangle2D.Float(x, y, size, size); //creates the square
-                    currentShapeType = "Square"; //sets the shape type as square for the answer for the answer
-                    break;
-                case 3: //trapezoid
-                    Polygon trapezoid = new Polygon(); //creates a polygon to represent a trapezoid
-                    trapezoid.addPoint(x, y); //adds the top left point
-                    trapezoid.addPoint(x + 200, y); //adds the top right point (wider for trapezoid)
-                    trapezoid.addPoint(x + 150, y + size); //adds the bottom right point
-                    trapezoid.addPoint(x + 50, y + size); //adds the bottom left point
-                    currentShape = trapezoid; //creates the trapezoid
-                    currentShapeType = "Trapezoid"; //sets the shape type as trapezoid for the answer
-                    break;
-            }
+            currentShape = scene.pickRandomShape(); //picks a shape from this difficulty and a random color, prerendered
+            currentShapeType = currentShape.name; //sets the shape type for the answer
 
             repaint(); //calls repaint to redraw the panel with the new shape
         }
@@ -0,0 +1,87 @@
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+
+// what the shape matcher panel shows: the round's shape in a random color, drawn from the sprite
+// cache; it needs no window, so the game panel paints with it and the benchmarks, the recognizer and
+// the headless checks paint the same pixels into a BufferedImage
+// colors are any RGB like the game always had, so nearly every round renders its sprite once and then
+// blits it on every repaint; with the palette on they come from PALETTE_SIZE hues instead, and every
+// shape and color pair fits in the cache, so rounds after the first few render nothing
+public class ShapeMatcherScene {
+    public static final int PANEL_WIDTH = 600; // GamePanel's preferred size
+    public static final int PANEL_HEIGHT = 400;
+    public static final Color BACKGROUND = new Color(238, 238, 238); // default panel color
+    public static final int SHAPE_X = 250; // where the shape is drawn
+    public static final int SHAPE_Y = 150;
+    public static final int PALETTE_SIZE = 16;
+
+    private final List<ShapeCatalog.Entry> shapes;
+    private final ShapeSpriteCache sprites;
+    private final Random random;
+    private final Color[] palette; // null for random RGB colors
+    private ShapeCatalog.Entry currentShape;
+    private Color shapeColor;
+
+    public ShapeMatcherScene(List<ShapeCatalog.Entry> shapes, ShapeSpriteCache sprites, Random random) {
+        this(shapes, sprites, random, false);
+    }
+
+    public ShapeMatcherScene(List<ShapeCatalog.Entry> shapes, ShapeSpriteCache sprites, Random random, boolean usePalette) {
+        this.shapes = shapes;
+        this.sprites = sprites;
+        this.random = random;
+        if (usePalette) {
+            palette = new Color[PALETTE_SIZE];
+            for (int i = 0; i < palette.length; i++) {
+                palette[i] = Color.getHSBColor(i / (float) palette.length, 0.8f, 0.9f); // evenly spread hues
+            }
+        } else {
+            palette = null;
+        }
+    }
+
+    // picks the next shape and its color and renders the sprite now if it is new, so painting only blits
+    public ShapeCatalog.Entry pickRandomShape() {
+        currentShape = shapes.get(random.nextInt(shapes.size()));
+        shapeColor = palette != null ? palette[random.nextInt(palette.length)] : randomColor(random);
+        sprites.get(currentShape, shapeColor);
+        return currentShape;
+    }
+
+    // any RGB color, the way the game colors its shapes without the palette; some are close to the background
+    public static Color randomColor(Random random) {
+        return new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+    }
+
+    // draws the current shape; the background is left to the caller
+    public void paint(Graphics g) {
+        paint(g, sprites, currentShape, shapeColor, SHAPE_X, SHAPE_Y);
+    }
+
+    // draws any shape and color with its top left corner at x, y, the way the panel draws its own
+    public static void paint(Graphics g, ShapeSpriteCache sprites, ShapeCatalog.Entry shape, Color color, int x, int y) {
+        g.drawImage(sprites.get(shape, color), x - ShapeSpriteCache.MARGIN, y - ShapeSpriteCache.MARGIN, null);
+    }
+
+    // clears a panel-sized area to the panel's background, what super.paintComponent() does in the game
+    public static void paintBackground(Graphics g) {
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, PANEL_WIDTH, PANEL_HEIGHT);
+    }
+
+    // a panel-sized image to paint into offscreen
+    public static BufferedImage newPanelImage() {
+        return new BufferedImage(PANEL_WIDTH, PANEL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    }
+
+    public ShapeCatalog.Entry getCurrentShape() {
+        return currentShape;
+    }
+
+    public Color getShapeColor() {
+        return shapeColor;
+    }
+}
@@ -1,85 +1,55 @@
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.Timer; 
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
 
-
-enum ShapeType { // set up and creates the enum with different types of shapes  
-    RECTANGLE, // added for level one
-    CIRCLE, //^
-    TRIANGLE, //^
-    TRAPEZOID, // added for level two
-    PENTAGON, //^
-    HEXAGON //^
-}
-
-// declares and creates constants width, height, speed, time limit, score, level 
+// the shape shooter window; the game rules themselves live in ShapeShooterEngine
 public class ShapeMatching extends JFrame implements KeyListener {
-private static final int WIDTH = 500;
-private static final int HEIGHT = 500;
-private static final int PLAYER_WIDTH = 50;
-private static final int PLAYER_HEIGHT = 50;
-private static final int OBSTACLE_WIDTH = 20;
-private static final int OBSTACLE_HEIGHT = 20; 
-private static final int PROJECTILE_WIDTH = 50; // edited from 5 to 50 in order to align with obstacle dimensions
-private static final int PROJECTILE_HEIGHT = 50; // height of the projectiles 
-private static final int PLAYER_SPEED = 25; // player speed when going left or right with arrows 
-private int OBSTACLE_SPEED = 3; // drop speed of obstacle is 
-private static final int PROJECTILE_SPEED = 15;
-private int SHAPE_PROMPT_TIME_LIMIT = 20000; // added to fix timer bug
-private static final int LEVEL_THRESHOLD_SCORE = 100;
-private long lastPromptTime = 0; // ^
-private static final String[] SHAPE_NAMES = {"Rectangle", "Circle", "Triangle"}; // added
-private int score = 0;
-private int currentLevel = 1;
+private static final int WIDTH = ShapeShooterEngine.WIDTH;
+private static final int HEIGHT = ShapeShooterEngine.HEIGHT;
+private static final int PLAYER_WIDTH = ShapeShooterEngine.PLAYER_WIDTH;
+private static final int PLAYER_HEIGHT = ShapeShooterEngine.PLAYER_HEIGHT;
+private static final int OBSTACLE_WIDTH = ShapeShooterEngine.OBSTACLE_WIDTH;
+private static final int OBSTACLE_HEIGHT = ShapeShooterEngine.OBSTACLE_HEIGHT;
+private static final int PROJECTILE_WIDTH = ShapeShooterEngine.PROJECTILE_WIDTH;
+private static final int PROJECTILE_HEIGHT = ShapeShooterEngine.PROJECTILE_HEIGHT;
+private static final int DEFAULT_FPS_CAP = 120; // frame cap for active rendering, 0 means uncapped
 
 // variables from jframe to connect and link to the game
+private ShapeShooterEngine engine;
 private JPanel gamePanel;
 private JLabel scoreLabel;
 private JLabel correctLabel;
+private volatile String correctText = ""; // correctLabel's text, set on the EDT with it so the loop thread never reads the label
 private JLabel levelLabel;
 private Timer timer;
-private boolean isGameOver;
-private int playerX, playerY;
-private int projectileX, projectileY;
-private int currentShapeIndex;
-private boolean isProjectileVisible;
-private boolean isFiring;
-private List<Obstacle> obstacles;
-private Image pointerImage;
-private Image spriteTriangle;
-private Image spriteSheet;
-private Image spriteRectangle;
-private Image spriteCircle;
-private Image scaledPointerImage;
-private Image spriteHexagon;
-private Image spriteTrapezoid;
-private Image spritePentagon;
-private int spriteWidth;
-private int spriteHeight;
-
-// Inner class representing obstacles
-class Obstacle { // added
-    int x;
-    int y;
-    ShapeType shapeType;
-
-    public Obstacle(int x, int y, ShapeType shapeType) { //added
-        this.x = x;
-        this.y = y;
-        this.shapeType = shapeType;
-    }
+private final boolean activeRendering; // true when a loop thread page-flips a Canvas instead of the swing timer
+private Canvas canvas;
+private ActiveRenderLoop renderLoop;
+private final ShooterInput input = new ShooterInput(); // key state and timestamped events, read once per tick
+private ShooterRecorder recorder; // set when -Dshooter.record=<file> asks for a replay log
+private ShooterNetClient net; // set when -Dshooter.server=<host:port> plays on a server
+private boolean disconnected = false; // the server went away, nothing moves any more
+private final FrameStats frameStats = new FrameStats("Shape Shooter"); // F3 shows the overlay, F4 writes a CSV
+private SpriteAtlas atlas; // pointer and shape sprites, already scaled to the size they are drawn at
+private final NotificationQueue notifications = new NotificationQueue(); // banners drawn over the game instead of dialogs
+private ShooterRenderer renderer; // draws the game, the same code draws offscreen for benchmarks
+private static final int OVERLAY_TOP = HEIGHT - 180; // where the F3 frame stats overlay is drawn
+private final DirtyRegionTracker dirtyRegions = new DirtyRegionTracker(WIDTH, HEIGHT, 20); // swing timer mode only
+private boolean bannersShown = false; // banners were on screen last frame, so their area needs clearing
+private int shownScore = -1; // score currently in scoreLabel
+
+ // Constructor for the game, run with -Dshooter.activeRendering=true -Dshooter.fpsCap=144 to use the active loop
+    public ShapeMatching() {
+    this(Boolean.getBoolean("shooter.activeRendering"), Integer.getInteger("shooter.fpsCap", DEFAULT_FPS_CAP));
 }
 
- // Constructor for the game
-    public ShapeMatching() {
+// activeRendering picks the BufferStrategy loop, fpsCap of 0 lets it draw uncapped
+public ShapeMatching(boolean activeRendering, int fpsCap) {
+    this.activeRendering = activeRendering;
     // set up title of game inside the frame
     setTitle("Shape and Number Game!");
     setSize(WIDTH, HEIGHT);
@@ -93,28 +63,14 @@ class Obstacle { // added
             draw(g);
         }
     };
-    levelLabel = new JLabel("Level: " + currentLevel);
+    levelLabel = new JLabel("Level: 1");
     levelLabel.setBounds(10,50,100,20);
     levelLabel.setForeground(Color.RED);
     gamePanel.add(levelLabel);
 
-    obstacles = new ArrayList<>();
-
-    try {
-        pointerImage = ImageIO.read(new File("pointer.png")); // links together custom image to pointer 
-        spriteCircle = ImageIO.read(new File("circle.png")); // links together custom image to circle 
-        spriteTriangle = ImageIO.read(new File("triangle.png")); // links together custom image to triangle 
-        spriteRectangle = ImageIO.read(new File("rectangle.png")); // links together custom image to rectangle
-        spriteHexagon = ImageIO.read(new File("Hexagon.png")); // links together custom image to hexagon  
-        spriteTrapezoid = ImageIO.read(new File("Trapezoid.png")); // links together custom image to trapezoid 
-        spritePentagon = ImageIO.read(new File("Pentagon.png")); // links togther custom image to pentagon 
-
-        scaledPointerImage = pointerImage.getScaledInstance(PLAYER_WIDTH, PLAYER_HEIGHT, Image.SCALE_DEFAULT); // sets up a player pointer scale 
-        spriteWidth = OBSTACLE_WIDTH; 
-        spriteHeight = OBSTACLE_HEIGHT;
-    } catch (IOException ex) {
-        ex.printStackTrace();
-    }
+    // the pointer and every shape image scaled to the player and obstacle sizes, usually loaded while the menu was open
+    atlas = GameWarmup.shooterAtlas();
+    renderer = new ShooterRenderer(atlas, notifications);
 
     // sets score line position and color 
     scoreLabel = new JLabel("Score: 0");
@@ -123,280 +79,262 @@ class Obstacle { // added
     gamePanel.add(scoreLabel);
 
     // adds/creates game panel popup 
-    add(gamePanel);
-    gamePanel.setFocusable(true);
-    gamePanel.addKeyListener(this);
+    if (activeRendering) {
+        canvas = new Canvas(); // the loop thread draws everything onto this, labels included
+        canvas.setFocusable(true);
+        canvas.addKeyListener(this);
+        add(canvas);
+    } else {
+        add(gamePanel);
+        gamePanel.setFocusable(true);
+        gamePanel.addKeyListener(this);
+    }
+
+    correctLabel = new JLabel(); // added for "correct" label instead of pausing game with JOptionframe
+    correctLabel.setBounds(10, 30, 200, 20);
+    gamePanel.add(correctLabel);
+
+    // the engine holds the player, obstacles, projectile, score and level
+    ShapeShooterEngine.Listener listener = new ShapeShooterEngine.Listener() {
+        @Override
+        public void onMessage(String message) {
+            notifications.post(message); // shown as a banner by draw(), the game keeps running
+        }
+
+        @Override
+        public void onCorrect() {
+            runOnEdt(new Runnable() {
+                @Override
+                public void run() {
+                    correctLabel.setText("Correct!");
+                    correctText = "Correct!";
+                }
+            });
+        }
 
-    // x and y value postions of the player 
-    playerX = WIDTH / 2 - PLAYER_WIDTH / 2;
-    playerY = HEIGHT - PLAYER_HEIGHT - 20;
-    projectileX = playerX + PLAYER_WIDTH / 2 - PROJECTILE_WIDTH / 2;
-    projectileY = playerY;
-    isProjectileVisible = false;
-    isGameOver = false;
-    isFiring = false;
+        @Override
+        public void onLevelChanged(int level) {
+            System.out.println("Moving to level " + level + "!"); // prints on screen the next level name
+            runOnEdt(new Runnable() {
+                @Override
+                public void run() {
+                    levelLabel.setText("Level: " + level);
+                }
+            });
+        }
+    };
+    String server = System.getProperty("shooter.server");
+    if (server != null) {
+        // -Dshooter.server=host[:port] plays on a ShooterServer, the engine then only mirrors its state
+        int colon = server.lastIndexOf(':');
+        String host = colon >= 0 ? server.substring(0, colon) : server;
+        int port = colon >= 0 ? Integer.parseInt(server.substring(colon + 1)) : ShooterProtocol.DEFAULT_PORT;
+        try {
+            net = new ShooterNetClient(host, port, listener);
+        } catch (IOException ex) {
+            throw new IllegalStateException("could not join the shape shooter server at " + server, ex);
+        }
+        engine = net.getEngine();
+        System.out.println("Shape shooter seed (from " + server + "): " + net.getSeed());
+    } else {
+        // -Dshooter.seed=<n> plays a session again, every random choice in the game comes from this seed
+        long seed = Long.getLong("shooter.seed", System.nanoTime());
+        System.out.println("Shape shooter seed: " + seed);
+        engine = new ShapeShooterEngine(seed, listener);
+        configureLocalEngine();
+    }
+    String recordFile = System.getProperty("shooter.record");
 
-    // creates timer class and then screen prompt for game over 
-    timer = new Timer(20, new ActionListener() {
+    // prints the input latency and frame time numbers when the window closes
+    addWindowListener(new WindowAdapter() {
         @Override
-        public void actionPerformed(ActionEvent e) {
-            if (!isGameOver) {
-                update();
-                gamePanel.repaint();
+        public void windowClosing(WindowEvent e) {
+            System.out.println(input.latencySummary());
+            System.out.println(frameStats.summary());
+            if (recorder != null) {
+                saveRecording(recordFile);
             }
         }
     });
-    timer.start();
 
-    correctLabel = new JLabel(); // added for "correct" label instead of pausing game with JOptionframe
-    correctLabel.setBounds(10, 30, 200, 20);
-    gamePanel.add(correctLabel);
+    if (activeRendering) {
+        // the loop thread ticks and draws; key events on the EDT only touch the input buffer
+        renderLoop = new ActiveRenderLoop(canvas, new ActiveRenderLoop.Game() {
+            @Override
+            public void update() {
+                tickEngine();
+            }
 
-    currentShapeIndex = 0; //added shape index to lines of code 
-}
+            @Override
+            public void render(Graphics g, double alpha) {
+                draw(g, alpha); // page flipping always redraws the whole frame
+                frameDone();
+            }
+        }, ShapeShooterEngine.TICK_MILLIS, fpsCap);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                renderLoop.start(); // buffer strategy needs the canvas on screen first
+                canvas.requestFocusInWindow();
+            }
 
-// method to diplay the next shape 
-private void promptNextShape() {
-    if (currentShapeIndex < SHAPE_NAMES.length) {
-        String currentShape = SHAPE_NAMES[currentShapeIndex];
-        JOptionPane.showMessageDialog(ShapeMatching.this, "Strike the " + currentShape);
-        currentShapeIndex++;
-        lastPromptTime = System.currentTimeMillis();
-        System.out.println("Current shape index: " + currentShapeIndex);
-        gamePanel.requestFocusInWindow(); // brings back the focus onto the JFrame
+            @Override
+            public void windowClosing(WindowEvent e) {
+                renderLoop.stop();
+            }
+        });
+    } else {
+        // creates timer class that runs one engine tick every 20 ms and repaints only what changed
+        timer = new Timer(ShapeShooterEngine.TICK_MILLIS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (!engine.isGameOver()) {
+                    markScene(); // where things were
+                    tickEngine();
+                    markScene(); // where things are now
+                    updateHud();
+                    dirtyRegions.flush(gamePanel);
+                    frameDone();
+                }
+            }
+        });
+        timer.start();
     }
 }
 
-// method to move to the next level two
-private void moveToLevel2() {
-    System.out.println("Moving to level 2!"); // prints on screen the next level name 
-    OBSTACLE_SPEED = 7; // increase the set obstacles by seven
-    SHAPE_PROMPT_TIME_LIMIT = 15000; // creates a time limit for how long the game runs for 
-    currentLevel = 2; // sets up and establishes the game is running level 2 and not level 1
-    levelLabel.setText("Level: 2");
-    JOptionPane.showMessageDialog(this, "Welcome to level 2!");
-    currentShapeIndex = 0;
+// rule switches for a game ticked in this process, a server decides them for networked games
+private void configureLocalEngine() {
+    if (!Boolean.getBoolean("shooter.boxCollision")) {
+        engine.setObstacleMasks(atlas.getShapeMasks()); // hits follow the sprite outlines, -Dshooter.boxCollision=true turns this off
+    }
+    Integer parallelThreshold = Integer.getInteger("shooter.parallelThreshold");
+    if (parallelThreshold != null) {
+        // -Dshooter.parallelThreshold=<n> spreads ticks with n or more obstacles over every core
+        engine.setParallel(ForkJoinPool.commonPool(), parallelThreshold);
+    }
+    if (Boolean.getBoolean("shooter.rapidFire")) {
+        engine.setFireRate(2, 0); // -Dshooter.rapidFire=true: hold space to fire every other tick
+        engine.setAutoFire(true);
+    }
+    if (System.getProperty("shooter.record") != null) {
+        recorder = new ShooterRecorder(engine); // replays need a local engine, networked games are not recorded
+    }
 }
 
-// method to draaw the game components 
-private void draw(Graphics g) { // creates customization color for background color 
-    // displays the game background 
-    g.setColor(Color.WHITE); 
-    g.fillRect(0, 0, WIDTH, HEIGHT);
-
-    // Draws the  player ship
-    if (scaledPointerImage != null) {
-        g.drawImage(scaledPointerImage, playerX, playerY, null);
+// one fixed step: read the keyboard, log it for replays and advance the engine
+// (or send it to the server and take whatever state came back)
+private void tickEngine() {
+    frameStats.startUpdate();
+    int bits = input.poll();
+    if (net != null) {
+        pollServer(bits);
+    } else if (!disconnected) {
+        if (recorder != null) {
+            recorder.recordTick(bits);
+        }
+        engine.tick(bits);
     }
+    frameStats.endUpdate();
+}
 
-    // Draw each obstacles (shapes)
-    for (Obstacle obstacle : obstacles) {
-        switch (obstacle.shapeType) {
-            case RECTANGLE:
-                g.drawImage(spriteRectangle, obstacle.x, obstacle.y, null);
-                break;
-            case CIRCLE:
-                g.drawImage(spriteCircle, obstacle.x, obstacle.y, null);
-                break;
-            case TRIANGLE:
-                g.drawImage(spriteTriangle, obstacle.x, obstacle.y, null);
-                break;
-            case HEXAGON:
-                g.drawImage(spriteHexagon, obstacle.x, obstacle.y, null);
-                break;
-            case TRAPEZOID:
-                g.drawImage(spriteTrapezoid, obstacle.x, obstacle.y, null);
-                break;
-            case PENTAGON:
-                g.drawImage(spritePentagon, obstacle.x, obstacle.y, null);
-                break;
+private void pollServer(int bits) {
+    try {
+        net.poll(bits);
+    } catch (IOException | IllegalStateException ex) {
+        notifications.post("Lost the server: " + ex.getMessage());
+        System.err.println("Lost the shape shooter server: " + ex.getMessage());
+        try {
+            net.close();
+        } catch (IOException ignored) {
+            // closing anyway
         }
+        net = null; // the last state stays on screen, the engine is not ticked on from here
+        disconnected = true;
     }
+}
 
-    // Draw projectile
-    if (isProjectileVisible) {
-        g.setColor(Color.BLUE);
-        g.fillRect(projectileX, projectileY, PROJECTILE_WIDTH, PROJECTILE_HEIGHT);
+// marks the player, projectile and every obstacle, plus banners and the stats overlay while they show
+private void markScene() {
+    dirtyRegions.mark(engine.getPlayerX(), engine.getPlayerY(), PLAYER_WIDTH, PLAYER_HEIGHT);
+    ProjectilePool projectiles = engine.getProjectiles();
+    for (int i = 0; i < projectiles.size(); i++) {
+        dirtyRegions.mark(projectiles.getX(i), projectiles.getY(i), PROJECTILE_WIDTH, PROJECTILE_HEIGHT);
     }
-
-    // Draw score label
-    scoreLabel.setText("Score: " + score);
-
-    // Draw game over message
-    if (isGameOver) {
-        g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.BOLD, 24));
-        g.drawString("Game Over!", WIDTH / 2 - 80, HEIGHT / 2);
+    ObstacleStore obstacles = engine.getObstacles();
+    for (int i = 0; i < obstacles.size(); i++) {
+        dirtyRegions.mark(obstacles.getX(i), obstacles.getY(i), OBSTACLE_WIDTH, OBSTACLE_HEIGHT);
+    }
+    boolean bannersNow = !notifications.isEmpty();
+    if (bannersNow || bannersShown) {
+        dirtyRegions.mark(0, ShooterRenderer.BANNER_AREA_TOP, WIDTH, ShooterRenderer.BANNER_AREA_HEIGHT);
+    }
+    bannersShown = bannersNow;
+    if (frameStats.isOverlayVisible()) {
+        dirtyRegions.mark(0, OVERLAY_TOP, WIDTH, HEIGHT - OVERLAY_TOP);
     }
 }
 
-// method to update when the game starts 
-private void update() {
-    if (!isGameOver) {
-        // Update obstacle positions
-        for (int i = 0; i < obstacles.size(); i++) {
-            obstacles.get(i).y += OBSTACLE_SPEED;
-            if (obstacles.get(i).y > HEIGHT) {
-                obstacles.remove(i);
-                i--;
-            }
-        }
-        // Generate code for new obstacles
-        if (Math.random() < 0.02) {
-            boolean overlap; //added
-            do { //added
-                int obstacleX = (int) (Math.random() * (WIDTH - OBSTACLE_WIDTH));
-                ShapeType shapeType = getRandomShapeType(1); //edited
-                overlap = false; // Added
-                //obstacles.add(new Obstacle(obstacleX, 0, shapeType));
-                for (Obstacle obstacle : obstacles) { // added
-                    Rectangle newObstacleRect = new Rectangle(obstacleX, 0, OBSTACLE_WIDTH, OBSTACLE_HEIGHT); //added
-                    Rectangle existingObstacleRect = new Rectangle(obstacle.x, obstacle.y, OBSTACLE_WIDTH, OBSTACLE_HEIGHT); //added
-                    if (newObstacleRect.intersects(existingObstacleRect)) {
-                        overlap = true;
-                        break; //added
-                    }
-                }
-                if (!overlap) {//Repeat until no overlap
-                    obstacles.add(new Obstacle(obstacleX, 0, shapeType));
-                }
-            } while (overlap);
-        }
-
-        // Move projectiles 
-        if (isProjectileVisible) {
-            projectileY -= PROJECTILE_SPEED;
-            if (projectileY < 0) {
-                isProjectileVisible = false;
-            }
-        }
-
-        // Check collision between projectile and obstacles
-        if (isProjectileVisible) { // added
-            Rectangle projectileRect = new Rectangle(projectileX, projectileY, PROJECTILE_WIDTH, PROJECTILE_HEIGHT);
-            for (int i = 0; i < obstacles.size(); i++) {
-                Rectangle obstacleRect = new Rectangle(obstacles.get(i).x, obstacles.get(i).y, OBSTACLE_WIDTH, OBSTACLE_HEIGHT);
-                if (projectileRect.intersects(obstacleRect)) {
-                    ShapeType struckShape = obstacles.get(i).shapeType;
-                    String currentShape = SHAPE_NAMES[currentShapeIndex - 1];
-                    if (struckShape != null && struckShape.toString().equalsIgnoreCase(currentShape)) {
-                        // Correct shape struck, add points and remove the obstacle
-                        obstacles.remove(i);
-                        score += 10;
-                        correctLabel.setText("Correct!");
-                    } else {
-                        // Incorrect shape struck, display message
-                        String obstacleName = struckShape != null ? struckShape.toString() : "Unknown Shape";
-                        JOptionPane.showMessageDialog(this, "Incorrect! This is a " + obstacleName);
-                    }
-                    isProjectileVisible = false;
-                    break;
-                }
-            }
-        }
-        // Check if it's time to move to level two 
-        if (currentLevel == 1 && score >= LEVEL_THRESHOLD_SCORE) {
-            moveToLevel2();
-            currentLevel = 2;
-        }
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastPromptTime >= SHAPE_PROMPT_TIME_LIMIT) {
-            if (currentShapeIndex < SHAPE_NAMES.length) {
-                promptNextShape();
-            } else {
-                if (currentLevel == 1 && score >= LEVEL_THRESHOLD_SCORE) {
-                    if (score % 10 == 0) { // Assuming score increases by 10 for each correct shape
-                        moveToLevel2();
-                    } else {
-                        // Perhaps end the game or repeat level 1
-                        currentShapeIndex = 0;  // Optionally reset shapes for endless level 1 mode
-                        promptNextShape();
-                    }
-                } else {
-                    currentShapeIndex = 0;
-                    promptNextShape();
-                }
-            }
-        }
+// only touches the score label when the score changed, setText can make swing lay out again
+private void updateHud() {
+    int score = engine.getScore();
+    if (score != shownScore) {
+        scoreLabel.setText("Score: " + score);
+        shownScore = score;
     }
 }
 
+// closes the frame for the stats and the input latency sample
+private void frameDone() {
+    frameStats.endFrame(engine.getObstacles().size());
+    input.frameDrawn(System.nanoTime()); // ends the input latency sample for the tick just drawn
+}
 
-private ShapeType getStruckShape(int keyCode) { // added
-    switch (keyCode) {
-        case KeyEvent.VK_R: // Rectangle
-            return ShapeType.RECTANGLE;
-        case KeyEvent.VK_C: // Circle
-            return ShapeType.CIRCLE;
-        case KeyEvent.VK_T: // Triangle
-            return ShapeType.TRIANGLE;
-        case KeyEvent.VK_H: // Hexagon
-            return ShapeType.HEXAGON;
-        case KeyEvent.VK_Y: // Trapezoid
-            return ShapeType.TRAPEZOID;
-        case KeyEvent.VK_P: // Pentagon
-            return ShapeType.PENTAGON;
-        default:
-            return null;
+// writes the replay log; in active mode the loop is stopped first so the engine is not mid-tick
+private void saveRecording(String file) {
+    if (renderLoop != null) {
+        renderLoop.stop();
+    }
+    try {
+        recorder.write(Path.of(file), engine);
+        System.out.println("Replay saved to " + file);
+    } catch (IOException ex) {
+        System.err.println("Could not save replay: " + ex.getMessage());
     }
 }
 
-// random generate of shapes displayed on the screen
-private ShapeType getRandomShapeType(int level) {
-    if (level == 1) {
-        int randomIndex = new Random().nextInt(3); // 0, 1, or 2
-        switch (randomIndex) {
-            case 0:
-                return ShapeType.RECTANGLE;
-            case 1:
-                return ShapeType.CIRCLE;
-            case 2:
-                return ShapeType.TRIANGLE;
-            default:
-                return ShapeType.RECTANGLE; // Default to rectangle
-        }
-    } else if (level == 2) {
-        int randomIndex = new Random().nextInt(3); // 0, 1, or 2
-        switch (randomIndex) {
-            case 0:
-                return ShapeType.HEXAGON;
-            case 1:
-                return ShapeType.TRAPEZOID;
-            case 2:
-                return ShapeType.PENTAGON;
-            default:
-                return ShapeType.HEXAGON; // Default shape to display is hexagon
-        }
+// engine callbacks come from the loop thread in active mode, swing work has to hop to the EDT
+private static void runOnEdt(Runnable work) {
+    if (SwingUtilities.isEventDispatchThread()) {
+        work.run();
     } else {
-        return null; // Handle other levels if needed
+        SwingUtilities.invokeLater(work);
     }
 }
 
+// method to draaw the game components 
+private void draw(Graphics g) {
+    draw(g, 0);
+}
+
+// alpha is how far into the next tick this frame is, moving things are drawn that much further along
+private void draw(Graphics g, double alpha) {
+    frameStats.startPaint();
+    renderer.draw(g, engine, alpha, activeRendering ? correctText : null); // the canvas has no labels
+    frameStats.endPaint();
+    frameStats.drawOverlay(g, 5, OVERLAY_TOP);
+    GameWarmup.frameDrawn("Shape Shooter");
+}
+
+// key events only get recorded here, the next tick reads them through input.poll()
 @Override
 public void keyPressed(KeyEvent e) {
-    int keyCode = e.getKeyCode();
-    if (keyCode == KeyEvent.VK_SPACE) {
-        isFiring = true;
-    } else { // Handle player movement
-        // Your existing code for player movement
-        if (keyCode == KeyEvent.VK_LEFT && playerX > 0) {
-            playerX -= PLAYER_SPEED;
-        } else if (keyCode == KeyEvent.VK_RIGHT && playerX < WIDTH - PLAYER_WIDTH) {
-            playerX += PLAYER_SPEED;
-        }
-    }
-    ShapeType struckShape = getStruckShape(keyCode);
-    if (struckShape != null) {
-        // Check if the struck shape matches the current prompt
-        String currentShape = SHAPE_NAMES[currentShapeIndex - 1];
-        if (struckShape.toString().equalsIgnoreCase(currentShape)) {
-            // Correct shape struck, proceed to the next prompt
-            correctLabel.setText("Correct!");
-        } else {
-            // Incorrect shape struck
-            JOptionPane.showMessageDialog(this, "Incorrect! Please strike the " + currentShape);
-        }
+    if (e.getKeyCode() == KeyEvent.VK_F3) {
+        frameStats.toggleOverlay();
+        dirtyRegions.markAll(); // clears the overlay when it is switched off
+    } else if (e.getKeyCode() == KeyEvent.VK_F4) {
+        frameStats.exportCsv();
     }
+    input.record(e.getKeyCode(), true, System.nanoTime());
 }
 
 @Override
@@ -405,19 +343,7 @@ public void keyTyped(KeyEvent e) {
 
 @Override
 public void keyReleased(KeyEvent e) {
-    int keyCode = e.getKeyCode(); //added
-    if (keyCode == KeyEvent.VK_SPACE) {
-        // Fire the projectile when space is released
-        fireProjectile();
-        isFiring = false;
-    }
-}
-
-private void fireProjectile() { //added
-    // Add logic here to fire the projectile
-    projectileX = playerX + PLAYER_WIDTH / 2 - PROJECTILE_WIDTH / 2;
-    projectileY = playerY;
-    isProjectileVisible = true;
+    input.record(e.getKeyCode(), false, System.nanoTime()); // space fires on release
 }
 
 public static void main(String[] args) {
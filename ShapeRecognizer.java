@@ -0,0 +1,231 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+// tells which catalog shape is on a rendered shape matcher panel from its pixels alone
+// the largest blob that differs from the background is traced, then described by contour and moment
+// features (fill of its box, aspect, roundness, spread, width at the top and bottom, where its mass
+// sits); the answer is the catalog shape whose reference render has the nearest features
+// reference renders come from the catalog itself, painted by ShapeMatcherScene like the game paints
+// them, so new shapes are recognised without new rules
+public class ShapeRecognizer {
+    // channel difference from the background that counts as shape; the game colors its shapes with any
+    // RGB, a few percent of which are within a few dozen levels of the grey background, so this is kept
+    // small and the background is taken from the image itself instead of assumed
+    private static final int TOLERANCE = 4;
+    private static final int MIN_AREA = 50; // pixels; smaller blobs are stray edges of a shape too faint to see
+    private static final int FEATURES = 8;
+    private static final double[] WEIGHTS = {4, 2, 2, 20, 1, 2, 2, 2}; // by feature, see describe()
+
+    private final List<ShapeCatalog.Entry> shapes;
+    private final double[][] references;
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
+    // per-thread buffers, reused from image to image
+    private static class Workspace {
+        int[] pixels = new int[0];
+        int[] labels = new int[0];
+        int[] stack = new int[0];
+        final double[] features = new double[FEATURES];
+
+        void ensure(int size) {
+            if (pixels.length < size) {
+                pixels = new int[size];
+                labels = new int[size];
+                stack = new int[size];
+            }
+        }
+    }
+
+    public ShapeRecognizer(List<ShapeCatalog.Entry> shapes) {
+        this.shapes = shapes;
+        references = new double[shapes.size()][];
+        BufferedImage image = ShapeMatcherScene.newPanelImage();
+        ShapeSpriteCache sprites = new ShapeSpriteCache(null, shapes.size());
+        for (int i = 0; i < shapes.size(); i++) {
+            Graphics2D g = image.createGraphics();
+            try {
+                ShapeMatcherScene.paintBackground(g);
+                ShapeMatcherScene.paint(g, sprites, shapes.get(i), Color.BLUE, ShapeMatcherScene.SHAPE_X, ShapeMatcherScene.SHAPE_Y);
+            } finally {
+                g.dispose();
+            }
+            double[] features = describe(image);
+            if (features == null) {
+                throw new IllegalStateException(shapes.get(i).name + " renders as nothing");
+            }
+            references[i] = features.clone();
+        }
+    }
+
+    // the shape on the image, or null when there is nothing but background
+    public ShapeCatalog.Entry classify(BufferedImage image) {
+        double[] features = describe(image);
+        if (features == null) {
+            return null;
+        }
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < references.length; i++) {
+            double distance = 0;
+            for (int f = 0; f < FEATURES; f++) {
+                double d = features[f] - references[i][f];
+                distance += WEIGHTS[f] * d * d;
+            }
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = i;
+            }
+        }
+        return shapes.get(best);
+    }
+
+    // features of the largest non-background blob, in a per-thread array that the next call reuses
+    // 0 fill of the bounding box, 1 log of width over height, 2 roundness 4 pi area / perimeter^2,
+    // 3 spread (first Hu moment), 4 elongation of the second moments, 5 width near the top and
+    // 6 near the bottom as parts of the box width, 7 height of the centroid in the box
+    public double[] describe(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Workspace ws = workspaces.get();
+        ws.ensure(width * height);
+        int[] pixels = ws.pixels;
+        int[] labels = ws.labels;
+        if (image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_INT_ARGB) {
+            image.getRaster().getDataElements(0, 0, width, height, pixels); // already packed RGB, no conversion
+        } else {
+            image.getRGB(0, 0, width, height, pixels, 0, width);
+        }
+        int background = pixels[0];
+        for (int i = 0; i < width * height; i++) {
+            labels[i] = isShape(pixels[i], background) ? -1 : 0; // -1 shape, not labelled yet
+        }
+
+        // label 4-connected blobs and keep the largest, the overlay text and stray pixels are smaller
+        int[] stack = ws.stack;
+        int label = 0;
+        int bestLabel = 0;
+        int bestArea = 0;
+        int minX = 0;
+        int maxX = 0;
+        int minY = 0;
+        int maxY = 0;
+        for (int start = 0; start < width * height; start++) {
+            if (labels[start] != -1) {
+                continue;
+            }
+            label++;
+            int area = 0;
+            int left = width;
+            int right = -1;
+            int bottom = 0;
+            int top = 0;
+            stack[top++] = start;
+            labels[start] = label;
+            while (top > 0) {
+                int p = stack[--top];
+                area++;
+                int y = p / width;
+                int x = p - y * width;
+                left = Math.min(left, x);
+                right = Math.max(right, x);
+                bottom = Math.max(bottom, y);
+                if (x > 0 && labels[p - 1] == -1) {
+                    labels[p - 1] = label;
+                    stack[top++] = p - 1;
+                }
+                if (x < width - 1 && labels[p + 1] == -1) {
+                    labels[p + 1] = label;
+                    stack[top++] = p + 1;
+                }
+                if (p >= width && labels[p - width] == -1) {
+                    labels[p - width] = label;
+                    stack[top++] = p - width;
+                }
+                if (p + width < width * height && labels[p + width] == -1) {
+                    labels[p + width] = label;
+                    stack[top++] = p + width;
+                }
+            }
+            if (area > bestArea) {
+                bestArea = area;
+                bestLabel = label;
+                minX = left;
+                maxX = right;
+                minY = start / width; // scanning in order, so the first pixel found is on the top row
+                maxY = bottom;
+            }
+        }
+        if (bestLabel == 0 || bestArea < MIN_AREA) {
+            return null;
+        }
+
+        // moments and contour length of that blob, only its bounding box needs looking at
+        double sumX = 0;
+        double sumY = 0;
+        double sumXX = 0;
+        double sumYY = 0;
+        double sumXY = 0;
+        int perimeter = 0;
+        for (int y = minY; y <= maxY; y++) {
+            int row = y * width;
+            for (int x = minX; x <= maxX; x++) {
+                if (labels[row + x] != bestLabel) {
+                    continue;
+                }
+                sumX += x;
+                sumY += y;
+                sumXX += (double) x * x;
+                sumYY += (double) y * y;
+                sumXY += (double) x * y;
+                if (x == 0 || labels[row + x - 1] != bestLabel || x == width - 1 || labels[row + x + 1] != bestLabel
+                        || y == 0 || labels[row + x - width] != bestLabel
+                        || y == height - 1 || labels[row + x + width] != bestLabel) {
+                    perimeter++;
+                }
+            }
+        }
+        double area = bestArea;
+        int boxWidth = maxX - minX + 1;
+        int boxHeight = maxY - minY + 1;
+        double centerX = sumX / area;
+        double centerY = sumY / area;
+        double mu20 = sumXX / area - centerX * centerX;
+        double mu02 = sumYY / area - centerY * centerY;
+        double mu11 = sumXY / area - centerX * centerY;
+
+        double[] features = ws.features;
+        features[0] = area / ((double) boxWidth * boxHeight);
+        features[1] = Math.log((double) boxWidth / boxHeight);
+        features[2] = 4 * Math.PI * area / ((double) perimeter * perimeter);
+        features[3] = (mu20 + mu02) / area; // mu / area is the scale-free first Hu moment
+        features[4] = ((mu20 - mu02) * (mu20 - mu02) + 4 * mu11 * mu11) / ((mu20 + mu02) * (mu20 + mu02));
+        features[5] = rowWidth(labels, width, bestLabel, minX, maxX, minY + boxHeight / 10) / (double) boxWidth;
+        features[6] = rowWidth(labels, width, bestLabel, minX, maxX, maxY - boxHeight / 10) / (double) boxWidth;
+        features[7] = (centerY - minY) / boxHeight;
+        return features;
+    }
+
+    // distance from the blob's first to its last pixel on one row
+    private static int rowWidth(int[] labels, int width, int label, int minX, int maxX, int y) {
+        int row = y * width;
+        int first = -1;
+        int last = -1;
+        for (int x = minX; x <= maxX; x++) {
+            if (labels[row + x] == label) {
+                if (first < 0) {
+                    first = x;
+                }
+                last = x;
+            }
+        }
+        return first < 0 ? 0 : last - first + 1;
+    }
+
+    private static boolean isShape(int rgb, int background) {
+        return Math.abs(((rgb >> 16) & 0xFF) - ((background >> 16) & 0xFF)) > TOLERANCE
+                || Math.abs(((rgb >> 8) & 0xFF) - ((background >> 8) & 0xFF)) > TOLERANCE
+                || Math.abs((rgb & 0xFF) - (background & 0xFF)) > TOLERANCE;
+    }
+}
@@ -0,0 +1,95 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// renders many shape matcher panels offscreen and classifies them with ShapeRecognizer on every core
+// reports images per second for render plus recognition, and how many were recognised correctly, also
+// for the faint ones alone: shapes whose color is within FAINT of the background on every channel
+// usage: java ShapeRecognizerBenchmark [images] [difficulty 0-2] [seed]
+public class ShapeRecognizerBenchmark {
+    private static final int CHUNK = 64; // images per fork/join task
+    private static final int JITTER = 40; // shapes are moved up to this far from where the game draws them
+    private static final int FAINT = 60;
+
+    public static void main(String[] args) {
+        int images = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int difficulty = args.length > 1 ? Integer.parseInt(args[1]) : ShapeCatalog.HARD;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+
+        List<ShapeCatalog.Entry> shapes = ShapeCatalog.standard().forDifficulty(difficulty);
+        ShapeRecognizer recognizer = new ShapeRecognizer(shapes);
+        int[] expected = new int[images];
+        int[] actual = new int[images];
+        boolean[] faint = new boolean[images];
+        ThreadLocal<BufferedImage> canvases = ThreadLocal.withInitial(ShapeMatcherScene::newPanelImage);
+        ThreadLocal<ShapeSpriteCache> sprites = ThreadLocal.withInitial(() -> new ShapeSpriteCache(null, shapes.size()));
+
+        // every image is rebuilt from its index, so a run is the same whatever thread gets it
+        ChunkedAction.Body body = (from, to) -> {
+            BufferedImage canvas = canvases.get();
+            ShapeSpriteCache cache = sprites.get();
+            for (int i = from; i < to; i++) {
+                Random random = new Random(seed * 31 + i);
+                int shape = random.nextInt(shapes.size());
+                Color color = ShapeMatcherScene.randomColor(random); // as the game picks them, faint ones included
+                int x = ShapeMatcherScene.SHAPE_X + random.nextInt(JITTER * 2 + 1) - JITTER;
+                int y = ShapeMatcherScene.SHAPE_Y + random.nextInt(JITTER * 2 + 1) - JITTER;
+                Graphics2D g = canvas.createGraphics();
+                try {
+                    ShapeMatcherScene.paintBackground(g);
+                    ShapeMatcherScene.paint(g, cache, shapes.get(shape), color, x, y);
+                } finally {
+                    g.dispose();
+                }
+                ShapeCatalog.Entry found = recognizer.classify(canvas);
+                expected[i] = shape;
+                faint[i] = isFaint(color);
+                actual[i] = found == null ? -1 : shapes.indexOf(found);
+            }
+        };
+
+        System.out.println("Recognising " + images + " renders of " + shapes.size() + " shapes on "
+                + ForkJoinPool.commonPool().getParallelism() + " fork/join workers");
+        body.run(0, Math.min(images, 500)); // warm up the JIT before timing
+        long start = System.nanoTime();
+        ForkJoinPool.commonPool().invoke(new ChunkedAction(0, images, CHUNK, body));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int[][] confusion = new int[shapes.size()][shapes.size() + 1];
+        int correct = 0;
+        int faintImages = 0;
+        int faintCorrect = 0;
+        for (int i = 0; i < images; i++) {
+            if (expected[i] == actual[i]) {
+                correct++;
+            }
+            if (faint[i]) {
+                faintImages++;
+                faintCorrect += expected[i] == actual[i] ? 1 : 0;
+            }
+            confusion[expected[i]][actual[i] < 0 ? shapes.size() : actual[i]]++;
+        }
+        System.out.printf("%.0f images/s (%.2f s), accuracy %.2f%% (%d of %d)%n",
+                images / seconds, seconds, 100.0 * correct / images, correct, images);
+        System.out.printf("faint colors: accuracy %.2f%% (%d of %d)%n",
+                faintImages == 0 ? 100.0 : 100.0 * faintCorrect / faintImages, faintCorrect, faintImages);
+        for (int s = 0; s < shapes.size(); s++) {
+            for (int a = 0; a <= shapes.size(); a++) {
+                if (a != s && confusion[s][a] > 0) {
+                    System.out.println("  " + shapes.get(s).name + " taken for "
+                            + (a == shapes.size() ? "nothing" : shapes.get(a).name) + ": " + confusion[s][a]);
+                }
+            }
+        }
+    }
+
+    private static boolean isFaint(Color color) {
+        Color background = ShapeMatcherScene.BACKGROUND;
+        return Math.abs(color.getRed() - background.getRed()) <= FAINT
+                && Math.abs(color.getGreen() - background.getGreen()) <= FAINT
+                && Math.abs(color.getBlue() - background.getBlue()) <= FAINT;
+    }
+}
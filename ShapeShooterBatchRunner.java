@@ -0,0 +1,124 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// plays many seeded shape shooter sessions headless on every core and reports ticks per second
+// usage: java ShapeShooterBatchRunner [sessions] [ticksPerSession] [baseSeed] [spawnChance waveSize]
+// spawnChance and waveSize turn up obstacle density for stress runs, e.g. 1.0 25 spawns a full row every tick
+// -Dshooter.parallelThreshold=<n> plays the sessions one at a time instead and splits every tick with
+// n or more obstacles over the cores, to compare against the serial tick with the same seeds
+public class ShapeShooterBatchRunner {
+
+    // result of one finished session
+    static class SessionResult {
+        final long seed;
+        final long ticks;
+        final int score;
+        final int level;
+
+        SessionResult(long seed, long ticks, int score, int level) {
+            this.seed = seed;
+            this.ticks = ticks;
+            this.score = score;
+            this.level = level;
+        }
+    }
+
+    // simple player that lines up under the prompted shape and shoots it
+    static class Bot {
+        // input bits for the next tick
+        int play(ShapeShooterEngine engine) {
+            String wanted = engine.getCurrentShapeName();
+            ObstacleStore obstacles = engine.getObstacles();
+            int target = -1;
+            for (int i = 0; i < obstacles.size(); i++) {
+                if (wanted != null && obstacles.getShapeType(i).toString().equalsIgnoreCase(wanted)
+                        && (target == -1 || obstacles.getY(i) > obstacles.getY(target))) {
+                    target = i; // lowest matching shape is the closest one
+                }
+            }
+            if (target == -1) {
+                return 0;
+            }
+            int playerCenter = engine.getPlayerX() + ShapeShooterEngine.PLAYER_WIDTH / 2;
+            int targetCenter = obstacles.getX(target) + ShapeShooterEngine.OBSTACLE_WIDTH / 2;
+            int gap = targetCenter - playerCenter;
+            if (Math.abs(gap) > ShapeShooterEngine.PLAYER_SPEED / 2) {
+                return gap < 0 ? ShapeShooterEngine.INPUT_LEFT : ShapeShooterEngine.INPUT_RIGHT;
+            } else if (engine.canFire()) {
+                return ShapeShooterEngine.INPUT_FIRE;
+            }
+            return 0;
+        }
+    }
+
+    // listener for sessions nobody is watching
+    static final ShapeShooterEngine.Listener SILENT = new ShapeShooterEngine.Listener() {
+        @Override
+        public void onMessage(String message) {
+        }
+
+        @Override
+        public void onCorrect() {
+        }
+
+        @Override
+        public void onLevelChanged(int level) {
+        }
+    };
+
+    // runs one session to completion, same seed always gives the same result
+    static SessionResult runSession(long seed, int ticks, double spawnChance, int waveSize, int parallelThreshold) {
+        ShapeShooterEngine engine = new ShapeShooterEngine(seed, SILENT);
+        engine.getSpawner().setDensity(spawnChance, waveSize);
+        if (parallelThreshold >= 0) {
+            engine.setParallel(ForkJoinPool.commonPool(), parallelThreshold);
+        }
+        Bot bot = new Bot();
+        for (int i = 0; i < ticks && !engine.isGameOver(); i++) {
+            engine.tick(bot.play(engine));
+        }
+        return new SessionResult(seed, engine.getTickCount(), engine.getScore(), engine.getCurrentLevel());
+    }
+
+    public static void main(String[] args) {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 3000; // 3000 ticks is one minute of game time
+        long baseSeed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        double spawnChance = args.length > 3 ? Double.parseDouble(args[3]) : 0.02;
+        int waveSize = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+
+        int parallelThreshold = Integer.getInteger("shooter.parallelThreshold", -1);
+
+        System.out.println("Running " + sessions + " sessions of " + ticks + " ticks on "
+                + Runtime.getRuntime().availableProcessors() + " cores"
+                + (parallelThreshold >= 0 ? ", one session at a time with parallel ticks from "
+                + parallelThreshold + " obstacles" : ""));
+
+        long start = System.nanoTime();
+        IntStream sessionSeeds = IntStream.range(0, sessions);
+        if (parallelThreshold < 0) {
+            sessionSeeds = sessionSeeds.parallel();
+        }
+        SessionResult[] results = sessionSeeds
+                .mapToObj(i -> runSession(baseSeed + i, ticks, spawnChance, waveSize, parallelThreshold))
+                .toArray(SessionResult[]::new);
+        long elapsed = System.nanoTime() - start;
+
+        long totalTicks = 0;
+        long totalScore = 0;
+        int reachedLevel2 = 0;
+        int bestScore = 0;
+        for (SessionResult result : results) {
+            totalTicks += result.ticks;
+            totalScore += result.score;
+            bestScore = Math.max(bestScore, result.score);
+            if (result.level >= 2) {
+                reachedLevel2++;
+            }
+        }
+        double seconds = elapsed / 1e9;
+        System.out.printf("Simulated %d ticks in %.2f s (%.0f ticks/s)%n", totalTicks, seconds, totalTicks / seconds);
+        System.out.printf("Mean score %.1f, best score %d, %d of %d sessions reached level 2%n",
+                (double) totalScore / sessions, bestScore, reachedLevel2, sessions);
+    }
+}
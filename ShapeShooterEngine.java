@@ -0,0 +1,468 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// display-free rules for the shape shooter (obstacles, projectiles, scoring, levels)
+// the game is advanced one fixed tick at a time so it can run without a screen or real time
+public class ShapeShooterEngine {
+    public static final int WIDTH = 500;
+    public static final int HEIGHT = 500;
+    public static final int PLAYER_WIDTH = 50;
+    public static final int PLAYER_HEIGHT = 50;
+    public static final int OBSTACLE_WIDTH = 20;
+    public static final int OBSTACLE_HEIGHT = 20;
+    public static final int PROJECTILE_WIDTH = 50; // edited from 5 to 50 in order to align with obstacle dimensions
+    public static final int PROJECTILE_HEIGHT = 50; // height of the projectiles
+    public static final int PLAYER_SPEED = 6; // pixels per tick while an arrow key is held (300 px/s)
+    public static final int PROJECTILE_SPEED = 15;
+    public static final int LEVEL_THRESHOLD_SCORE = 100;
+    public static final int TICK_MILLIS = 20; // one tick is the same 20 ms step the swing timer used
+    public static final String[] SHAPE_NAMES = {"Rectangle", "Circle", "Triangle"};
+    public static final int DEFAULT_OBSTACLE_CAPACITY = 4096; // far more than fit on screen at normal speed
+    public static final int DEFAULT_PROJECTILE_CAPACITY = 256; // enough for a shot every tick all the way up the screen
+    public static final int GRID_CELL_SIZE = 40; // two obstacles wide, so a hit test looks at only a few cells
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 512; // obstacles before a tick is worth splitting up
+    private static final int OBSTACLE_CHUNK = 256; // obstacles moved per fork/join task
+    private static final int PROJECTILE_CHUNK = 8; // projectiles hit tested per fork/join task
+
+    // input bits for tick(int), one tick's worth of keyboard state
+    public static final int INPUT_LEFT = 1; // left arrow held
+    public static final int INPUT_RIGHT = 1 << 1; // right arrow held
+    public static final int INPUT_FIRE = 1 << 2; // fire once this tick
+    public static final int INPUT_FIRE_HELD = 1 << 3; // fire button held, keeps firing when auto fire is on
+    private static final int INPUT_STRIKE_SHIFT = 4; // one bit per ShapeType after this, see strikeInput()
+
+    private static final ShapeType[] SHAPE_TYPES = ShapeType.values();
+
+    // callbacks for everything the game used to show straight from update()
+    public interface Listener {
+        void onMessage(String message); // prompts, wrong hits and level changes
+        void onCorrect(); // the right shape was struck
+        void onLevelChanged(int level);
+    }
+
+    private final Random random; // every random choice goes through this so a seed replays the same session
+    private final long seed;
+    private final Listener listener;
+    private final ObstacleStore obstacles;
+    private final LaneSpawner spawner = new LaneSpawner(WIDTH, OBSTACLE_WIDTH, OBSTACLE_HEIGHT);
+
+    private int obstacleSpeed = 3; // drop speed of obstacles
+    private int promptTickLimit = 20000 / TICK_MILLIS; // ticks before the next shape is prompted
+    private int score = 0;
+    private int currentLevel = 1;
+    private int currentShapeIndex = 0;
+    private long tickCount = 0;
+    private long lastPromptTick;
+    private boolean isGameOver = false;
+    private int playerX, playerY;
+    private final ProjectilePool projectiles = new ProjectilePool(DEFAULT_PROJECTILE_CAPACITY);
+    private int fireCooldownTicks = 5; // ticks between shots, 5 is ten shots a second
+    private int projectileLifetimeTicks = 0; // 0 lets projectiles fly until they leave the screen
+    private boolean autoFire = false; // rapid fire power-up: holding fire keeps shooting
+    private long lastFireTick = Long.MIN_VALUE / 2;
+    private CollisionMask[] obstacleMasks; // by ShapeType ordinal, null for plain box collision
+    private final CollisionMask projectileMask = CollisionMask.solid(PROJECTILE_WIDTH, PROJECTILE_HEIGHT); // drawn as a filled box
+
+    // parallel ticks, see setParallel(); the scratch arrays are only touched inside tick()
+    private ForkJoinPool pool; // null keeps every tick on the calling thread
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    private final int[] stagedCells;
+    private final int[] hitCandidates = new int[DEFAULT_PROJECTILE_CAPACITY];
+    private final int[] removedBoxes = new int[DEFAULT_PROJECTILE_CAPACITY * 4]; // x, y of obstacles removed or renumbered this tick
+    private int removedBoxCount;
+    private final ChunkedAction.Body shiftObstacles = this::shiftObstacles;
+    private final ChunkedAction.Body findProjectileHits = this::findProjectileHits;
+
+    public ShapeShooterEngine(long seed, Listener listener) {
+        this(seed, listener, DEFAULT_OBSTACLE_CAPACITY);
+    }
+
+    // obstacleCapacity caps how many obstacles can be alive at once, spawns are skipped when it is full
+    public ShapeShooterEngine(long seed, Listener listener, int obstacleCapacity) {
+        this.seed = seed;
+        SpatialGrid grid = new SpatialGrid(obstacleCapacity, WIDTH, HEIGHT + OBSTACLE_HEIGHT, GRID_CELL_SIZE,
+                OBSTACLE_WIDTH, OBSTACLE_HEIGHT);
+        this.obstacles = new ObstacleStore(obstacleCapacity, grid);
+        this.stagedCells = new int[obstacleCapacity];
+        this.random = new Random(seed);
+        this.listener = listener;
+        playerX = WIDTH / 2 - PLAYER_WIDTH / 2;
+        playerY = HEIGHT - PLAYER_HEIGHT - 20;
+        lastPromptTick = -promptTickLimit; // prompt the first shape on the first tick
+    }
+
+    // input bit for typing the given shape's key
+    public static int strikeInput(ShapeType shapeType) {
+        return 1 << (INPUT_STRIKE_SHIFT + shapeType.ordinal());
+    }
+
+    // applies one tick of input, then advances the game by one fixed step
+    public void tick(int input) {
+        int direction = ((input & INPUT_RIGHT) != 0 ? 1 : 0) - ((input & INPUT_LEFT) != 0 ? 1 : 0);
+        if (direction != 0) {
+            movePlayer(direction * PLAYER_SPEED);
+        }
+        if ((input & INPUT_FIRE) != 0 || (autoFire && (input & INPUT_FIRE_HELD) != 0)) {
+            fireProjectile();
+        }
+        for (ShapeType shapeType : SHAPE_TYPES) {
+            if ((input & strikeInput(shapeType)) != 0) {
+                strike(shapeType);
+            }
+        }
+        tick();
+    }
+
+    // advances the game by one fixed step
+    public void tick() {
+        if (isGameOver) {
+            return;
+        }
+        boolean parallel = pool != null && obstacles.size() >= parallelThreshold;
+        // Update obstacle positions
+        if (parallel) {
+            moveObstaclesParallel();
+        } else {
+            moveObstacles();
+        }
+        // Generate new obstacles in free lanes of the top row
+        spawner.spawn(obstacles, random, tickCount, currentLevel, obstacleSpeed);
+
+        // Move projectiles, then check each one against the obstacles
+        if (parallel) {
+            moveProjectilesParallel();
+        } else {
+            moveProjectiles();
+        }
+        // Check if it's time to move to level two
+        if (currentLevel == 1 && score >= LEVEL_THRESHOLD_SCORE) {
+            moveToLevel2();
+        }
+        if (tickCount - lastPromptTick >= promptTickLimit) {
+            if (currentShapeIndex >= SHAPE_NAMES.length) {
+                currentShapeIndex = 0; // start the shapes over again
+            }
+            promptNextShape();
+        }
+        tickCount++;
+    }
+
+    private void moveObstacles() {
+        for (int i = 0; i < obstacles.size(); i++) {
+            int y = obstacles.getY(i) + obstacleSpeed;
+            if (y > HEIGHT) {
+                obstacles.remove(i); // the last obstacle moves into slot i, so check slot i again
+                i--;
+            } else {
+                obstacles.setY(i, y);
+            }
+        }
+    }
+
+    // same result as moveObstacles(): whether an obstacle falls off only depends on its own position,
+    // so the swap-removes run first in the same order and leave the same slots behind, then the
+    // survivors move in chunks and the grid is relinked on this thread
+    private void moveObstaclesParallel() {
+        for (int i = 0; i < obstacles.size(); i++) {
+            if (obstacles.getY(i) + obstacleSpeed > HEIGHT) {
+                obstacles.remove(i);
+                i--;
+            }
+        }
+        int count = obstacles.size();
+        pool.invoke(new ChunkedAction(0, count, OBSTACLE_CHUNK, shiftObstacles));
+        obstacles.commitShift(count, stagedCells);
+    }
+
+    private void shiftObstacles(int from, int to) {
+        obstacles.shiftDown(from, to, obstacleSpeed, stagedCells);
+    }
+
+    private void moveProjectiles() {
+        for (int p = 0; p < projectiles.size(); p++) {
+            projectiles.advance(p, PROJECTILE_SPEED);
+            if (isProjectileSpent(p)) {
+                projectiles.remove(p); // the last projectile moves into slot p, so check slot p again
+                p--;
+                continue;
+            }
+            int hit = findObstacleHit(projectiles.getX(p), projectiles.getY(p), PROJECTILE_WIDTH, PROJECTILE_HEIGHT);
+            if (hit >= 0) {
+                strikeObstacle(hit);
+                projectiles.remove(p);
+                p--;
+            }
+        }
+    }
+
+    // same result as moveProjectiles(): every projectile moves and looks for a hit in parallel against
+    // the obstacles as they are before any hit lands, then hits are applied here in the serial order;
+    // a projectile only looks again when an obstacle removed or renumbered by an earlier hit is under it
+    private void moveProjectilesParallel() {
+        pool.invoke(new ChunkedAction(0, projectiles.size(), PROJECTILE_CHUNK, findProjectileHits));
+        removedBoxCount = 0;
+        for (int p = 0; p < projectiles.size(); p++) {
+            if (isProjectileSpent(p)) {
+                removeProjectile(p);
+                p--;
+                continue;
+            }
+            int x = projectiles.getX(p);
+            int y = projectiles.getY(p);
+            int hit = touchesRemovedObstacle(x, y) ? findObstacleHit(x, y, PROJECTILE_WIDTH, PROJECTILE_HEIGHT)
+                    : hitCandidates[p];
+            if (hit >= 0) {
+                int last = obstacles.size() - 1;
+                int hitX = obstacles.getX(hit);
+                int hitY = obstacles.getY(hit);
+                int lastX = obstacles.getX(last);
+                int lastY = obstacles.getY(last);
+                if (strikeObstacle(hit)) {
+                    addRemovedBox(hitX, hitY);
+                    if (hit != last) {
+                        addRemovedBox(lastX, lastY); // moved into slot hit, lower slots win ties
+                    }
+                }
+                removeProjectile(p);
+                p--;
+            }
+        }
+    }
+
+    private void findProjectileHits(int from, int to) {
+        for (int p = from; p < to; p++) {
+            projectiles.advance(p, PROJECTILE_SPEED);
+            hitCandidates[p] = isProjectileSpent(p) ? -1
+                    : findObstacleHit(projectiles.getX(p), projectiles.getY(p), PROJECTILE_WIDTH, PROJECTILE_HEIGHT);
+        }
+    }
+
+    private void removeProjectile(int p) {
+        hitCandidates[p] = hitCandidates[projectiles.size() - 1]; // follows the projectile that moves into p
+        projectiles.remove(p);
+    }
+
+    private void addRemovedBox(int x, int y) {
+        removedBoxes[removedBoxCount++] = x;
+        removedBoxes[removedBoxCount++] = y;
+    }
+
+    private boolean touchesRemovedObstacle(int x, int y) {
+        for (int i = 0; i < removedBoxCount; i += 2) {
+            int boxX = removedBoxes[i];
+            int boxY = removedBoxes[i + 1];
+            if (x < boxX + OBSTACLE_WIDTH && boxX < x + PROJECTILE_WIDTH
+                    && y < boxY + OBSTACLE_HEIGHT && boxY < y + PROJECTILE_HEIGHT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isProjectileSpent(int p) {
+        return projectiles.getY(p) < 0
+                || (projectileLifetimeTicks > 0 && projectiles.getAge(p) >= projectileLifetimeTicks);
+    }
+
+    // a projectile reached an obstacle: the prompted shape scores and is removed (returns true),
+    // any other shape is only reported
+    private boolean strikeObstacle(int hit) {
+        ShapeType struckShape = obstacles.getShapeType(hit);
+        String currentShape = getCurrentShapeName();
+        if (struckShape.toString().equalsIgnoreCase(currentShape)) {
+            // Correct shape struck, add points and remove the obstacle
+            obstacles.remove(hit);
+            score += 10;
+            listener.onCorrect();
+            return true;
+        }
+        listener.onMessage("Incorrect! This is a " + struckShape);
+        return false;
+    }
+
+    // slot of the obstacle a box at this position hits, or -1; any number of projectiles can ask each tick
+    // with obstacle masks set a projectile-sized box only hits where the obstacle's sprite is solid,
+    // other sizes keep the plain box test
+    public int findObstacleHit(int x, int y, int width, int height) {
+        CollisionMask boxMask = width == PROJECTILE_WIDTH && height == PROJECTILE_HEIGHT ? projectileMask : null;
+        return obstacles.findOverlap(x, y, width, height, boxMask, obstacleMasks);
+    }
+
+    // pixel-accurate hits: one mask per ShapeType ordinal at obstacle size (see SpriteAtlas.getShapeMasks()),
+    // or null to go back to box hits; set before the first tick so replays match
+    public void setObstacleMasks(CollisionMask[] masks) {
+        this.obstacleMasks = masks;
+    }
+
+    public boolean hasObstacleMasks() {
+        return obstacleMasks != null;
+    }
+
+    // runs ticks with at least threshold obstacles on the pool, null goes back to one thread
+    // the outcome is the same either way, so replays and seeds do not care which path ran
+    // a pool with a single worker cannot win anything back, so ticks stay serial with it
+    public void setParallel(ForkJoinPool pool, int threshold) {
+        this.pool = pool != null && pool.getParallelism() > 1 ? pool : null;
+        this.parallelThreshold = threshold;
+    }
+
+    // moves the player sideways, staying inside the screen
+    public void movePlayer(int dx) {
+        playerX = Math.max(0, Math.min(WIDTH - PLAYER_WIDTH, playerX + dx));
+    }
+
+    // shoots from the player if the fire rate allows it and a pool slot is free
+    public boolean fireProjectile() {
+        if (!canFire()) {
+            return false;
+        }
+        projectiles.add(playerX + PLAYER_WIDTH / 2 - PROJECTILE_WIDTH / 2, playerY);
+        lastFireTick = tickCount;
+        return true;
+    }
+
+    public boolean canFire() {
+        return tickCount - lastFireTick >= fireCooldownTicks && projectiles.size() < projectiles.capacity();
+    }
+
+    // cooldownTicks between shots (0 fires every tick), lifetimeTicks before a shot fizzles (0 for no limit)
+    public void setFireRate(int cooldownTicks, int lifetimeTicks) {
+        this.fireCooldownTicks = cooldownTicks;
+        this.projectileLifetimeTicks = lifetimeTicks;
+    }
+
+    public void setAutoFire(boolean autoFire) {
+        this.autoFire = autoFire;
+    }
+
+    public int getFireCooldownTicks() {
+        return fireCooldownTicks;
+    }
+
+    public int getProjectileLifetimeTicks() {
+        return projectileLifetimeTicks;
+    }
+
+    public boolean isAutoFire() {
+        return autoFire;
+    }
+
+    // checks a shape typed on the keyboard against the current prompt
+    public void strike(ShapeType struckShape) {
+        String currentShape = getCurrentShapeName();
+        if (currentShape == null) {
+            return; // nothing has been prompted yet
+        }
+        if (struckShape.toString().equalsIgnoreCase(currentShape)) {
+            listener.onCorrect();
+        } else {
+            listener.onMessage("Incorrect! Please strike the " + currentShape);
+        }
+    }
+
+    private void promptNextShape() {
+        if (currentShapeIndex < SHAPE_NAMES.length) {
+            String currentShape = SHAPE_NAMES[currentShapeIndex];
+            currentShapeIndex++;
+            lastPromptTick = tickCount;
+            listener.onMessage("Strike the " + currentShape);
+        }
+    }
+
+    private void moveToLevel2() {
+        obstacleSpeed = 7; // obstacles fall faster on level two
+        promptTickLimit = 15000 / TICK_MILLIS; // and prompts change sooner
+        currentLevel = 2;
+        currentShapeIndex = 0;
+        listener.onLevelChanged(currentLevel);
+        listener.onMessage("Welcome to level 2!");
+    }
+
+    // index into SHAPE_NAMES plus one of the prompted shape, 0 before the first prompt
+    int getCurrentShapeIndex() {
+        return currentShapeIndex;
+    }
+
+    // for an engine that only mirrors a ShooterServer session and is never ticked
+    void applyServerState(long tickCount, int score, int level, int shapeIndex, int playerX, int obstacleSpeed) {
+        this.tickCount = tickCount;
+        this.score = score;
+        this.currentLevel = level;
+        this.currentShapeIndex = shapeIndex;
+        this.playerX = playerX;
+        this.obstacleSpeed = obstacleSpeed;
+    }
+
+    // name of the shape the player should hit, or null before the first prompt
+    public String getCurrentShapeName() {
+        return currentShapeIndex > 0 ? SHAPE_NAMES[currentShapeIndex - 1] : null;
+    }
+
+    // fingerprint of everything that affects how the game continues, used to check replays
+    public long stateHash() {
+        long hash = 1125899906842597L;
+        hash = 31 * hash + tickCount;
+        hash = 31 * hash + score;
+        hash = 31 * hash + currentLevel;
+        hash = 31 * hash + currentShapeIndex;
+        hash = 31 * hash + lastPromptTick;
+        hash = 31 * hash + playerX;
+        hash = 31 * hash + lastFireTick;
+        for (int i = 0; i < projectiles.size(); i++) {
+            hash = 31 * hash + projectiles.getX(i);
+            hash = 31 * hash + projectiles.getY(i);
+            hash = 31 * hash + projectiles.getAge(i);
+        }
+        for (int i = 0; i < obstacles.size(); i++) {
+            hash = 31 * hash + obstacles.getX(i);
+            hash = 31 * hash + obstacles.getY(i);
+            hash = 31 * hash + obstacles.getShapeCode(i);
+        }
+        return hash;
+    }
+
+    // density and per-level shape mix of new obstacles
+    public LaneSpawner getSpawner() {
+        return spawner;
+    }
+
+    public ObstacleStore getObstacles() {
+        return obstacles;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getCurrentLevel() {
+        return currentLevel;
+    }
+
+    public boolean isGameOver() {
+        return isGameOver;
+    }
+
+    public int getObstacleSpeed() {
+        return obstacleSpeed;
+    }
+
+    public int getPlayerX() {
+        return playerX;
+    }
+
+    public int getPlayerY() {
+        return playerY;
+    }
+
+    public ProjectilePool getProjectiles() {
+        return projectiles;
+    }
+}
@@ -0,0 +1,78 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// antialiased images of catalog shapes in a color, each rendered once and then only blitted
+// the least recently used image is dropped once the cache is full, so any number of shapes and
+// colors can be asked for while memory stays bounded
+public class ShapeSpriteCache {
+    public static final int MARGIN = 2; // room for the antialiased edge around the shape's bounds
+
+    private final GraphicsConfiguration gc; // null when running headless
+    private final Map<Long, BufferedImage> images;
+    private long hits = 0;
+    private long misses = 0;
+
+    public ShapeSpriteCache(GraphicsConfiguration gc, int capacity) {
+        this.gc = gc;
+        this.images = new LinkedHashMap<Long, BufferedImage>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // image of the shape filled with the color; draw it MARGIN pixels up and left of where the shape goes
+    public BufferedImage get(ShapeCatalog.Entry entry, Color color) {
+        Long key = ((long) entry.id << 32) | (color.getRGB() & 0xFFFFFFFFL);
+        BufferedImage image = images.get(key);
+        if (image != null) {
+            hits++;
+            return image;
+        }
+        misses++;
+        image = render(entry, color);
+        images.put(key, image);
+        return image;
+    }
+
+    public int size() {
+        return images.size();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    private BufferedImage render(ShapeCatalog.Entry entry, Color color) {
+        Rectangle bounds = entry.shape.getBounds();
+        int width = bounds.x + bounds.width + MARGIN * 2;
+        int height = bounds.y + bounds.height + MARGIN * 2;
+        BufferedImage image = gc != null
+                ? gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            g.translate(MARGIN, MARGIN);
+            g.setColor(color);
+            g.fill(entry.shape);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+}
@@ -0,0 +1,8 @@
+enum ShapeType { // set up and creates the enum with different types of shapes
+    RECTANGLE, // added for level one
+    CIRCLE, //^
+    TRIANGLE, //^
+    TRAPEZOID, // added for level two
+    PENTAGON, //^
+    HEXAGON //^
+}
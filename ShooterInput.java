@@ -0,0 +1,146 @@
+import java.awt.event.KeyEvent;
+
+// keyboard input for the shape shooter, recorded as it arrives and consumed once per tick
+// key events are stamped with System.nanoTime() into a ring buffer; the tick turns them into the
+// engine's input bits, so movement depends on how long a key is held and not on key repeat
+public class ShooterInput {
+    private static final int CAPACITY = 128; // events between two ticks, far more than anyone can type in 20 ms
+
+    private final long[] eventTimes = new long[CAPACITY];
+    private final int[] eventCodes = new int[CAPACITY];
+    private final boolean[] eventPressed = new boolean[CAPACITY];
+    private int head = 0; // next event to consume
+    private int size = 0;
+    private int dropped = 0;
+
+    private boolean leftDown;
+    private boolean rightDown;
+    private boolean spaceDown;
+
+    // input-to-frame latency: oldest event a tick used, until the frame after that tick is drawn
+    private long waitingSince = 0;
+    private long latencyCount = 0;
+    private long latencyTotal = 0;
+    private long latencyMax = 0;
+    private long lastLatency = 0;
+
+    // called on the EDT for key presses and releases
+    public synchronized void record(int keyCode, boolean pressed, long nanoTime) {
+        if (size == CAPACITY) {
+            dropped++;
+            return;
+        }
+        int slot = (head + size) % CAPACITY;
+        eventTimes[slot] = nanoTime;
+        eventCodes[slot] = keyCode;
+        eventPressed[slot] = pressed;
+        size++;
+    }
+
+    // drains everything since the last tick into ShapeShooterEngine INPUT_ bits
+    public synchronized int poll() {
+        int input = 0;
+        while (size > 0) {
+            long time = eventTimes[head];
+            int code = eventCodes[head];
+            boolean pressed = eventPressed[head];
+            head = (head + 1) % CAPACITY;
+            size--;
+
+            boolean repeat = pressed && isDown(code); // OS key repeat, the held state already covers it
+            if (!repeat) {
+                if (waitingSince == 0) {
+                    waitingSince = time;
+                }
+                if (code == KeyEvent.VK_SPACE && !pressed && spaceDown) {
+                    input |= ShapeShooterEngine.INPUT_FIRE; // fires when space is released, like before
+                }
+                ShapeType struck = getStruckShape(code);
+                if (struck != null && pressed) {
+                    input |= ShapeShooterEngine.strikeInput(struck);
+                }
+            }
+            setDown(code, pressed);
+        }
+        if (leftDown) {
+            input |= ShapeShooterEngine.INPUT_LEFT;
+        }
+        if (rightDown) {
+            input |= ShapeShooterEngine.INPUT_RIGHT;
+        }
+        if (spaceDown) {
+            input |= ShapeShooterEngine.INPUT_FIRE_HELD;
+        }
+        return input;
+    }
+
+    // called once a frame has been drawn, closes the latency sample started by poll()
+    public synchronized void frameDrawn(long nanoTime) {
+        if (waitingSince != 0) {
+            lastLatency = nanoTime - waitingSince;
+            latencyTotal += lastLatency;
+            latencyMax = Math.max(latencyMax, lastLatency);
+            latencyCount++;
+            waitingSince = 0;
+        }
+    }
+
+    public synchronized long getLastLatencyNanos() {
+        return lastLatency;
+    }
+
+    public synchronized String latencySummary() {
+        if (latencyCount == 0) {
+            return "Input-to-frame latency: no input yet";
+        }
+        return String.format("Input-to-frame latency: avg %.2f ms, max %.2f ms over %d samples, %d events dropped",
+                latencyTotal / 1e6 / latencyCount, latencyMax / 1e6, latencyCount, dropped);
+    }
+
+    private boolean isDown(int code) {
+        switch (code) {
+            case KeyEvent.VK_LEFT:
+                return leftDown;
+            case KeyEvent.VK_RIGHT:
+                return rightDown;
+            case KeyEvent.VK_SPACE:
+                return spaceDown;
+            default:
+                return false;
+        }
+    }
+
+    private void setDown(int code, boolean down) {
+        switch (code) {
+            case KeyEvent.VK_LEFT:
+                leftDown = down;
+                break;
+            case KeyEvent.VK_RIGHT:
+                rightDown = down;
+                break;
+            case KeyEvent.VK_SPACE:
+                spaceDown = down;
+                break;
+        }
+    }
+
+    // keys that name a shape
+    static ShapeType getStruckShape(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_R: // Rectangle
+                return ShapeType.RECTANGLE;
+            case KeyEvent.VK_C: // Circle
+                return ShapeType.CIRCLE;
+            case KeyEvent.VK_T: // Triangle
+                return ShapeType.TRIANGLE;
+            case KeyEvent.VK_H: // Hexagon
+                return ShapeType.HEXAGON;
+            case KeyEvent.VK_Y: // Trapezoid
+                return ShapeType.TRAPEZOID;
+            case KeyEvent.VK_P: // Pentagon
+                return ShapeType.PENTAGON;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+// opens many ShooterNetClient sessions over loopback, plays them with random input at the game's
+// tick rate and reports how the server keeps up: snapshot rate, bandwidth and input round trips
+// without a host it starts a ShooterServer in this process first
+// usage: java ShooterLoadTest [clients] [seconds] [host port]
+public class ShooterLoadTest {
+    private static final int SEQ_WINDOW = 1024; // inputs in flight we can time, far more than a round trip needs
+
+    // one simulated player
+    private static class Player {
+        final ShooterNetClient client;
+        final Random random;
+        final long[] sentAt = new long[SEQ_WINDOW];
+        int ackedSeq = 0;
+        long snapshotsBefore; // received while the other clients were still connecting
+
+        Player(ShooterNetClient client, long seed) {
+            this.client = client;
+            this.random = new Random(seed);
+        }
+
+        // wanders, fires and now and then names a shape
+        int nextInput() {
+            int input = 0;
+            int move = random.nextInt(3);
+            if (move == 1) {
+                input |= ShapeShooterEngine.INPUT_LEFT;
+            } else if (move == 2) {
+                input |= ShapeShooterEngine.INPUT_RIGHT;
+            }
+            if (random.nextInt(10) == 0) {
+                input |= ShapeShooterEngine.INPUT_FIRE;
+            }
+            if (random.nextInt(100) == 0) {
+                input |= ShapeShooterEngine.strikeInput(ShapeType.values()[random.nextInt(3)]);
+            }
+            return input;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        String host = args.length > 3 ? args[2] : "127.0.0.1";
+        int port;
+        ShooterServer server = null;
+        Thread serverThread = null;
+        if (args.length > 3) {
+            port = Integer.parseInt(args[3]);
+        } else {
+            server = new ShooterServer(0, clients);
+            port = server.getPort();
+            ShooterServer running = server;
+            serverThread = new Thread(() -> {
+                try {
+                    running.run();
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                }
+            }, "shooter-server");
+            serverThread.start();
+            System.out.println("Started a server on port " + port);
+        }
+
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            players.add(new Player(new ShooterNetClient(host, port, ShapeShooterBatchRunner.SILENT), i));
+        }
+        System.out.println("Connected " + clients + " clients to " + host + ":" + port + ", playing for " + seconds + " s");
+
+        for (Player player : players) {
+            player.client.poll(0); // drain the backlog from connecting, so the rate below is steady state
+            player.snapshotsBefore = player.client.getSnapshots();
+        }
+        LatencyHistogram roundTrips = new LatencyHistogram();
+        long tickNanos = ShapeShooterEngine.TICK_MILLIS * 1_000_000L;
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        long nextTick = start;
+        int disconnected = 0;
+        while (System.nanoTime() - end < 0 && !players.isEmpty()) {
+            for (int i = players.size() - 1; i >= 0; i--) {
+                Player player = players.get(i);
+                try {
+                    // stamped whether or not poll() sends, an unsent seq is stamped again next time
+                    player.sentAt[(player.client.getSentSeq() + 1) % SEQ_WINDOW] = System.nanoTime();
+                    player.client.poll(player.nextInput());
+                    int acked = player.client.getAckedSeq();
+                    if (acked != player.ackedSeq) {
+                        roundTrips.record(System.nanoTime() - player.sentAt[acked % SEQ_WINDOW]);
+                        player.ackedSeq = acked;
+                    }
+                } catch (IOException | IllegalStateException ex) {
+                    System.err.println("client " + i + ": " + ex.getMessage());
+                    players.remove(i);
+                    disconnected++;
+                }
+            }
+            nextTick += tickNanos;
+            long wait = nextTick - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else {
+                nextTick = System.nanoTime(); // fell behind, do not burst
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long snapshots = 0;
+        long bytes = 0; // includes what arrived while connecting, a small share of a full run
+        for (Player player : players) {
+            snapshots += player.client.getSnapshots() - player.snapshotsBefore;
+            bytes += player.client.getBytesReceived();
+            player.client.close();
+        }
+        if (server != null) {
+            server.stop();
+            serverThread.join();
+        }
+        double expected = players.size() * elapsed * 1000 / ShapeShooterEngine.TICK_MILLIS;
+        System.out.printf("%d clients for %.1f s, %d disconnected%n", players.size(), elapsed, disconnected);
+        System.out.printf("Snapshots: %d (%.1f%% of one per tick per client), %.1f bytes each, %.1f KB/s in total%n",
+                snapshots, 100.0 * snapshots / expected, (double) bytes / Math.max(1, snapshots), bytes / 1024.0 / elapsed);
+        System.out.printf("Input round trip (sent until a snapshot acknowledges it): p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                roundTrips.percentile(50) / 1e6, roundTrips.percentile(99) / 1e6, roundTrips.getMax() / 1e6);
+    }
+}
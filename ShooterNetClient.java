@@ -0,0 +1,162 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+// thin client for a ShooterServer session: sends input and mirrors the server's state into an engine
+// that is never ticked locally, so the game can draw it exactly like a local one
+// everything runs on the caller's thread; poll() never blocks once the WELCOME has arrived
+// a frame is decoded with the buffer's limit at its end, and one that is truncated or out of range
+// is reported as a ProtocolException, like any other broken connection
+public class ShooterNetClient {
+    private static final int IN_BUFFER_BYTES = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocateDirect(IN_BUFFER_BYTES); // kept in write mode
+    private final ByteBuffer out = ByteBuffer.allocateDirect(64);
+    private final ShapeShooterEngine.Listener listener;
+    private final ShapeShooterEngine mirror;
+    private final long seed;
+    private int seq = 0;
+    private int lastSentInput = 0;
+    private int ackedSeq = 0;
+    private long snapshots = 0;
+    private long bytesReceived = 0;
+
+    // connects and waits for the server's WELCOME; listener gets the server's messages as they arrive
+    public ShooterNetClient(String host, int port, ShapeShooterEngine.Listener listener) throws IOException {
+        this.listener = listener;
+        channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.socket().setTcpNoDelay(true);
+        int length;
+        in.flip();
+        while ((length = ShooterProtocol.completeFrame(in)) < 0) {
+            in.compact();
+            if (channel.read(in) < 0) {
+                throw new EOFException("server closed the connection before the game started");
+            }
+            in.flip();
+        }
+        int next = in.position() + length;
+        int end = in.limit();
+        in.limit(next);
+        int obstacleCapacity;
+        try {
+            in.getInt();
+            if (in.get() != ShooterProtocol.WELCOME) {
+                throw new IOException("not a shape shooter server");
+            }
+            seed = in.getLong();
+            obstacleCapacity = in.getInt();
+            in.getInt(); // projectile capacity, the mirror uses the same default pool
+        } catch (BufferUnderflowException ex) {
+            throw new ProtocolException("WELCOME frame is too short");
+        }
+        if (obstacleCapacity < 1 || obstacleCapacity > Short.MAX_VALUE) { // snapshots send counts as shorts
+            throw new ProtocolException("bad obstacle capacity " + obstacleCapacity);
+        }
+        in.limit(end);
+        in.position(next);
+        in.compact();
+        mirror = new ShapeShooterEngine(seed, listener, obstacleCapacity);
+        channel.configureBlocking(false);
+    }
+
+    // sends this tick's input (when there is something to say) and applies everything received so far
+    // returns the number of snapshots applied
+    public int poll(int input) throws IOException {
+        if (input != 0 || input != lastSentInput) {
+            sendInput(input); // nothing goes out while the player is idle
+        }
+        return receive();
+    }
+
+    private void sendInput(int input) throws IOException {
+        out.clear();
+        ShooterProtocol.writeInput(out, ++seq, input);
+        out.flip();
+        while (out.hasRemaining()) {
+            if (channel.write(out) == 0) {
+                Thread.onSpinWait(); // socket buffer full, only happens if the server stopped reading
+            }
+        }
+        lastSentInput = input;
+    }
+
+    private int receive() throws IOException {
+        int read = channel.read(in);
+        if (read < 0) {
+            throw new EOFException("server closed the connection");
+        }
+        bytesReceived += read;
+        in.flip();
+        int applied = 0;
+        int length;
+        while ((length = ShooterProtocol.completeFrame(in)) > 0) {
+            int next = in.position() + length;
+            int end = in.limit();
+            in.limit(next); // reading past the frame underflows instead of running into the next one
+            in.getInt();
+            byte type = in.get();
+            try {
+                switch (type) {
+                    case ShooterProtocol.MESSAGE:
+                        listener.onMessage(ShooterProtocol.readMessage(in));
+                        break;
+                    case ShooterProtocol.CORRECT:
+                        listener.onCorrect();
+                        break;
+                    case ShooterProtocol.LEVEL:
+                        listener.onLevelChanged(in.get());
+                        break;
+                    case ShooterProtocol.SNAPSHOT:
+                        ackedSeq = ShooterProtocol.Snapshots.read(in, mirror);
+                        snapshots++;
+                        applied++;
+                        break;
+                    default:
+                        break; // newer server, skip what we do not know
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException ex) {
+                throw new ProtocolException("malformed frame of type " + type + ": " + ex);
+            }
+            in.limit(end);
+            in.position(next);
+        }
+        in.compact();
+        return applied;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // the server's state as of the last snapshot
+    public ShapeShooterEngine getEngine() {
+        return mirror;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // seq of the last input sent and of the last one the server has applied
+    public int getSentSeq() {
+        return seq;
+    }
+
+    public int getAckedSeq() {
+        return ackedSeq;
+    }
+
+    public long getSnapshots() {
+        return snapshots;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+}
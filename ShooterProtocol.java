@@ -0,0 +1,251 @@
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// wire format shared by ShooterServer, ShooterNetClient and ShooterLoadTest
+// every message is a frame: length (int, counts the type byte and payload), type (byte), payload
+//
+// client to server: INPUT seq (int), bits (int) with ShapeShooterEngine INPUT_ bits
+// server to client: WELCOME seed (long), obstacle capacity (int), projectile capacity (int), once
+//                   MESSAGE text (short length + UTF-8), CORRECT, LEVEL level (byte), as the engine reports them
+//                   SNAPSHOT once per tick, see Snapshots
+// the server decides every hit, with the same pixel collision a local game uses unless it was started
+// with -Dshooter.boxCollision=true, so a session plays the same online and offline
+public class ShooterProtocol {
+    public static final int DEFAULT_PORT = 4747;
+    public static final int OBSTACLE_CAPACITY = 1024; // the lane spawner never fits more than 25 x 26 on screen
+    public static final int HEADER_BYTES = 5; // length and type
+
+    public static final byte INPUT = 1;
+    public static final int INPUT_LENGTH = 1 + 8; // type, seq and bits
+
+    public static final byte WELCOME = 1;
+    public static final byte MESSAGE = 2;
+    public static final byte CORRECT = 3;
+    public static final byte LEVEL = 4;
+    public static final byte SNAPSHOT = 5;
+
+    // obstacle slot: slot, x, y (shorts), shape (byte); projectile slot: slot, x, y (shorts)
+    private static final int OBSTACLE_ENTRY_BYTES = 7;
+    private static final int PROJECTILE_ENTRY_BYTES = 6;
+    private static final int SNAPSHOT_FIXED_BYTES = 8 + 4 + 4 + 1 + 1 + 2 + 1 + 2 + 2 + 2 + 2 + 8;
+
+    public static void writeInput(ByteBuffer out, int seq, int bits) {
+        out.putInt(INPUT_LENGTH);
+        out.put(INPUT);
+        out.putInt(seq);
+        out.putInt(bits);
+    }
+
+    public static void writeWelcome(ByteBuffer out, long seed, int obstacleCapacity, int projectileCapacity) {
+        out.putInt(1 + 16);
+        out.put(WELCOME);
+        out.putLong(seed);
+        out.putInt(obstacleCapacity);
+        out.putInt(projectileCapacity);
+    }
+
+    // false when the text does not fit, the message is then left out
+    public static boolean writeMessage(ByteBuffer out, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (out.remaining() < HEADER_BYTES + 2 + bytes.length) {
+            return false;
+        }
+        out.putInt(1 + 2 + bytes.length);
+        out.put(MESSAGE);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+        return true;
+    }
+
+    public static String readMessage(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static boolean writeCorrect(ByteBuffer out) {
+        if (out.remaining() < HEADER_BYTES) {
+            return false;
+        }
+        out.putInt(1);
+        out.put(CORRECT);
+        return true;
+    }
+
+    public static boolean writeLevel(ByteBuffer out, int level) {
+        if (out.remaining() < HEADER_BYTES + 1) {
+            return false;
+        }
+        out.putInt(2);
+        out.put(LEVEL);
+        out.put((byte) level);
+        return true;
+    }
+
+    // length of the next complete frame in the buffer (header included), or -1 until all of it has arrived
+    // the buffer is in read mode and its position is left where it was; a length with no type byte, or
+    // one that could never fit in the buffer, is a broken or hostile peer and ends the connection
+    public static int completeFrame(ByteBuffer in) throws ProtocolException {
+        if (in.remaining() < 4) {
+            return -1;
+        }
+        int length = in.getInt(in.position());
+        if (length < 1 || length > in.capacity() - 4) {
+            throw new ProtocolException("bad frame length " + length);
+        }
+        return in.remaining() >= 4 + length ? 4 + length : -1;
+    }
+
+    // cheap fingerprint of everything a snapshot carries in its slots, checked by the client after a delta
+    public static long checksum(ObstacleStore obstacles, ProjectilePool projectiles) {
+        long hash = obstacles.size() * 31L + projectiles.size();
+        for (int i = 0; i < obstacles.size(); i++) {
+            hash = hash * 31 + ((long) obstacles.getX(i) << 32 | (obstacles.getY(i) & 0xFFFFL) << 8 | obstacles.getShapeCode(i));
+        }
+        for (int i = 0; i < projectiles.size(); i++) {
+            hash = hash * 31 + ((long) projectiles.getX(i) << 32 | (projectiles.getY(i) & 0xFFFFFFFFL));
+        }
+        return hash;
+    }
+
+    // delta snapshots for one client
+    // both ends keep the last snapshot the client got and move it forward the way the game does
+    // (obstacles down by the fall speed, projectiles up by their speed); only slots that differ from
+    // that prediction are sent, which on a normal tick is just new spawns, hits and swap-removes
+    //
+    // payload: tick (long), ack (int, last input seq applied), score (int), level, shape index (bytes),
+    // player x (short), fall speed (byte), obstacle count, changed obstacles (shorts) and their entries,
+    // projectile count, changed projectiles (shorts) and their entries, checksum (long)
+    public static class Snapshots {
+        private final int[] obstacleXs;
+        private final int[] obstacleYs;
+        private final byte[] obstacleShapes;
+        private int obstacleCount = 0;
+        private final int[] projectileXs;
+        private final int[] projectileYs;
+        private int projectileCount = 0;
+
+        public Snapshots(int obstacleCapacity, int projectileCapacity) {
+            obstacleXs = new int[obstacleCapacity];
+            obstacleYs = new int[obstacleCapacity];
+            obstacleShapes = new byte[obstacleCapacity];
+            projectileXs = new int[projectileCapacity];
+            projectileYs = new int[projectileCapacity];
+        }
+
+        // writes the engine's state as a delta against the last snapshot written, or writes nothing and
+        // returns false when it might not fit; the client then just gets a bigger delta next time
+        public boolean write(ByteBuffer out, ShapeShooterEngine engine, int ack) {
+            ObstacleStore obstacles = engine.getObstacles();
+            ProjectilePool projectiles = engine.getProjectiles();
+            int worstCase = HEADER_BYTES + SNAPSHOT_FIXED_BYTES + obstacles.size() * OBSTACLE_ENTRY_BYTES
+                    + projectiles.size() * PROJECTILE_ENTRY_BYTES;
+            if (out.remaining() < worstCase) {
+                return false;
+            }
+            int start = out.position();
+            out.position(start + 4); // length goes in at the end
+            out.put(SNAPSHOT);
+            out.putLong(engine.getTickCount());
+            out.putInt(ack);
+            out.putInt(engine.getScore());
+            out.put((byte) engine.getCurrentLevel());
+            out.put((byte) engine.getCurrentShapeIndex());
+            out.putShort((short) engine.getPlayerX());
+            int speed = engine.getObstacleSpeed();
+            out.put((byte) speed);
+
+            out.putShort((short) obstacles.size());
+            int changedAt = out.position();
+            out.putShort((short) 0);
+            int changed = 0;
+            for (int i = 0; i < obstacles.size(); i++) {
+                int x = obstacles.getX(i);
+                int y = obstacles.getY(i);
+                byte shape = obstacles.getShapeCode(i);
+                if (i >= obstacleCount || obstacleXs[i] != x || obstacleYs[i] + speed != y || obstacleShapes[i] != shape) {
+                    out.putShort((short) i);
+                    out.putShort((short) x);
+                    out.putShort((short) y);
+                    out.put(shape);
+                    changed++;
+                }
+                obstacleXs[i] = x;
+                obstacleYs[i] = y;
+                obstacleShapes[i] = shape;
+            }
+            out.putShort(changedAt, (short) changed);
+            obstacleCount = obstacles.size();
+
+            out.putShort((short) projectiles.size());
+            changedAt = out.position();
+            out.putShort((short) 0);
+            changed = 0;
+            for (int i = 0; i < projectiles.size(); i++) {
+                int x = projectiles.getX(i);
+                int y = projectiles.getY(i);
+                if (i >= projectileCount || projectileXs[i] != x || projectileYs[i] - ShapeShooterEngine.PROJECTILE_SPEED != y) {
+                    out.putShort((short) i);
+                    out.putShort((short) x);
+                    out.putShort((short) y);
+                    changed++;
+                }
+                projectileXs[i] = x;
+                projectileYs[i] = y;
+            }
+            out.putShort(changedAt, (short) changed);
+            projectileCount = projectiles.size();
+
+            out.putLong(checksum(obstacles, projectiles));
+            out.putInt(start, out.position() - start - 4);
+            return true;
+        }
+
+        // applies a SNAPSHOT payload (after the type byte) to a mirror engine that only ever shows
+        // server state; returns the input seq the server acknowledged, and throws if the result does
+        // not match the server's checksum
+        public static int read(ByteBuffer in, ShapeShooterEngine mirror) {
+            long tick = in.getLong();
+            int ack = in.getInt();
+            int score = in.getInt();
+            int level = in.get();
+            int shapeIndex = in.get();
+            int playerX = in.getShort();
+            int speed = in.get();
+            mirror.applyServerState(tick, score, level, shapeIndex, playerX, speed);
+
+            ObstacleStore obstacles = mirror.getObstacles();
+            int count = checkIndex(in.getShort(), obstacles.capacity() + 1, "obstacle count");
+            for (int i = 0; i < Math.min(count, obstacles.size()); i++) {
+                obstacles.setY(i, obstacles.getY(i) + speed);
+            }
+            obstacles.setSize(count);
+            for (int changed = in.getShort(); changed > 0; changed--) {
+                obstacles.set(checkIndex(in.getShort(), count, "obstacle"), in.getShort(), in.getShort(), in.get());
+            }
+
+            ProjectilePool projectiles = mirror.getProjectiles();
+            count = checkIndex(in.getShort(), projectiles.capacity() + 1, "projectile count");
+            for (int i = 0; i < Math.min(count, projectiles.size()); i++) {
+                projectiles.advance(i, ShapeShooterEngine.PROJECTILE_SPEED);
+            }
+            projectiles.setSize(count);
+            for (int changed = in.getShort(); changed > 0; changed--) {
+                projectiles.set(checkIndex(in.getShort(), count, "projectile"), in.getShort(), in.getShort());
+            }
+
+            if (in.getLong() != checksum(obstacles, projectiles)) {
+                throw new IllegalStateException("snapshot for tick " + tick + " does not match the server");
+            }
+            return ack;
+        }
+
+        private static int checkIndex(int value, int bound, String what) {
+            if (value < 0 || value >= bound) {
+                throw new IllegalArgumentException(what + " " + value + " is out of range in a snapshot");
+            }
+            return value;
+        }
+    }
+}
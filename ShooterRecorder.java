@@ -0,0 +1,151 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// records a shape shooter session as its seed plus the input bits of every tick
+// the file is small: ticks with the same input are stored as one run of (length, bits) varints
+//
+// layout: "SSRP" magic, version byte, seed (long), obstacle capacity (int), spawn chance (double),
+// wave size (int), fire cooldown (int), projectile lifetime (int), auto fire (boolean),
+// pixel collision (boolean, masks are rebuilt from the sprites on replay), levels and shape types
+// (bytes) followed by every level's shape weights (ints, by ShapeType ordinal), then runs,
+// then a 0 run length followed by the final tick count, score, level and state hash to check against
+public class ShooterRecorder {
+    static final int MAGIC = 0x53535250; // "SSRP"
+    static final int VERSION = 4; // 2 added the spawn and fire settings, 3 pixel collision, 4 shape weights
+    static final int OLDEST_VERSION = 2; // the replayer still reads these, older ones were never written
+
+    private final long seed;
+    private final int obstacleCapacity;
+    private final double spawnChance;
+    private final int waveSize;
+    private final int fireCooldownTicks;
+    private final int projectileLifetimeTicks;
+    private final boolean autoFire;
+    private final boolean pixelCollision;
+    private final int[][] shapeWeights; // [level - 1][ShapeType ordinal]
+    private byte[] runs = new byte[1024];
+    private int length = 0;
+    private int runBits = 0;
+    private int runLength = 0;
+
+    // takes the seed and settings from an engine that has not ticked yet
+    public ShooterRecorder(ShapeShooterEngine engine) {
+        this.seed = engine.getSeed();
+        this.obstacleCapacity = engine.getObstacles().capacity();
+        this.spawnChance = engine.getSpawner().getSpawnChance();
+        this.waveSize = engine.getSpawner().getWaveSize();
+        this.fireCooldownTicks = engine.getFireCooldownTicks();
+        this.projectileLifetimeTicks = engine.getProjectileLifetimeTicks();
+        this.autoFire = engine.isAutoFire();
+        this.pixelCollision = engine.hasObstacleMasks();
+        ShapeType[] shapeTypes = ShapeType.values();
+        shapeWeights = new int[LaneSpawner.MAX_LEVEL][shapeTypes.length];
+        for (int level = 1; level <= LaneSpawner.MAX_LEVEL; level++) {
+            for (ShapeType shapeType : shapeTypes) {
+                shapeWeights[level - 1][shapeType.ordinal()] = engine.getSpawner().getShapeWeight(level, shapeType);
+            }
+        }
+    }
+
+    // call with the same input that is passed to engine.tick(input)
+    public void recordTick(int input) {
+        if (runLength > 0 && input != runBits) {
+            flushRun();
+        }
+        runBits = input;
+        runLength++;
+    }
+
+    // writes the log together with the engine's final state so a replay can be checked
+    public void write(Path file, ShapeShooterEngine engine) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(out, engine);
+        }
+    }
+
+    public void write(OutputStream stream, ShapeShooterEngine engine) throws IOException {
+        if (runLength > 0) {
+            flushRun();
+        }
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(seed);
+        out.writeInt(obstacleCapacity);
+        out.writeDouble(spawnChance);
+        out.writeInt(waveSize);
+        out.writeInt(fireCooldownTicks);
+        out.writeInt(projectileLifetimeTicks);
+        out.writeBoolean(autoFire);
+        out.writeBoolean(pixelCollision);
+        out.writeByte(shapeWeights.length);
+        out.writeByte(shapeWeights[0].length);
+        for (int[] levelWeights : shapeWeights) {
+            for (int weight : levelWeights) {
+                out.writeInt(weight);
+            }
+        }
+        out.write(runs, 0, length);
+        out.writeByte(0); // end of runs
+        writeVarLong(out, engine.getTickCount());
+        writeVarLong(out, engine.getScore());
+        writeVarLong(out, engine.getCurrentLevel());
+        out.writeLong(engine.stateHash());
+        out.flush();
+    }
+
+    private void flushRun() {
+        putVarLong(runLength);
+        putVarLong(runBits & 0xFFFFFFFFL);
+        runLength = 0;
+    }
+
+    private void putVarLong(long value) {
+        while (true) {
+            if (length + 1 > runs.length) {
+                runs = Arrays.copyOf(runs, runs.length * 2);
+            }
+            if ((value & ~0x7FL) == 0) {
+                runs[length++] = (byte) value;
+                return;
+            }
+            runs[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    // records a bot session without a screen: java ShooterRecorder <out.ssrp> [seed] [ticks]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("usage: java ShooterRecorder <out.ssrp> [seed] [ticks]");
+            return;
+        }
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        int ticks = args.length > 2 ? Integer.parseInt(args[2]) : 3000;
+
+        ShapeShooterEngine engine = new ShapeShooterEngine(seed, ShapeShooterBatchRunner.SILENT);
+        ShooterRecorder recorder = new ShooterRecorder(engine);
+        ShapeShooterBatchRunner.Bot bot = new ShapeShooterBatchRunner.Bot();
+        for (int i = 0; i < ticks; i++) {
+            int input = bot.play(engine);
+            recorder.recordTick(input);
+            engine.tick(input);
+        }
+        Path file = Path.of(args[0]);
+        recorder.write(file, engine);
+        System.out.println("Recorded " + ticks + " ticks (score " + engine.getScore() + ") to " + file
+                + " in " + Files.size(file) + " bytes");
+    }
+}
@@ -0,0 +1,73 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+
+// draws a shape shooter engine's state: background, player, obstacles, projectiles, banners and the
+// game over text; it needs no window, so ShapeMatching draws its panel or canvas with it and the
+// benchmarks draw into a BufferedImage with the same code
+public class ShooterRenderer {
+    public static final int WIDTH = ShapeShooterEngine.WIDTH;
+    public static final int HEIGHT = ShapeShooterEngine.HEIGHT;
+    public static final int BANNER_AREA_TOP = 80; // where notification banners are drawn
+    public static final int BANNER_AREA_HEIGHT = 100;
+    private static final Font GAME_OVER_FONT = new Font("Arial", Font.BOLD, 24);
+
+    private final SpriteAtlas atlas; // pointer and shape sprites, already scaled to the size they are drawn at
+    private final NotificationQueue notifications; // banners drawn over the game
+
+    public ShooterRenderer(SpriteAtlas atlas, NotificationQueue notifications) {
+        this.atlas = atlas;
+        this.notifications = notifications;
+    }
+
+    // alpha is how far into the next tick this frame is, moving things are drawn that much further along
+    // status is the text of the "correct" label, drawn with the score and level when there are no swing
+    // labels on top (active rendering); null leaves the text to the labels
+    public void draw(Graphics g, ShapeShooterEngine engine, double alpha, String status) {
+        // displays the game background
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+
+        // Draws the  player ship
+        g.drawImage(atlas.getPointer(), engine.getPlayerX(), engine.getPlayerY(), null);
+
+        // Draw each obstacles (shapes)
+        ObstacleStore obstacles = engine.getObstacles();
+        for (int i = 0; i < obstacles.size(); i++) {
+            int y = obstacles.getY(i) + (int) (engine.getObstacleSpeed() * alpha);
+            if (g.hitClip(obstacles.getX(i), y, ShapeShooterEngine.OBSTACLE_WIDTH, ShapeShooterEngine.OBSTACLE_HEIGHT)) { // skip what this repaint doesn't cover
+                g.drawImage(atlas.getShapeSprite(obstacles.getShapeCode(i)), obstacles.getX(i), y, null);
+            }
+        }
+
+        // Draw projectiles
+        g.setColor(Color.BLUE);
+        ProjectilePool projectiles = engine.getProjectiles();
+        int projectileOffset = (int) (ShapeShooterEngine.PROJECTILE_SPEED * alpha);
+        for (int i = 0; i < projectiles.size(); i++) {
+            g.fillRect(projectiles.getX(i), projectiles.getY(i) - projectileOffset,
+                    ShapeShooterEngine.PROJECTILE_WIDTH, ShapeShooterEngine.PROJECTILE_HEIGHT);
+        }
+
+        // Draw score label
+        if (status != null) {
+            // there are no swing labels on the canvas, so draw the same text where they would be
+            g.setColor(Color.BLUE);
+            g.drawString("Score: " + engine.getScore(), 10, 25);
+            g.setColor(Color.BLACK);
+            g.drawString(status, 10, 45);
+            g.setColor(Color.RED);
+            g.drawString("Level: " + engine.getCurrentLevel(), 10, 65);
+        }
+
+        // Draw prompts and messages on top of the game
+        notifications.draw(g, WIDTH, BANNER_AREA_TOP);
+
+        // Draw game over message
+        if (engine.isGameOver()) {
+            g.setColor(Color.WHITE);
+            g.setFont(GAME_OVER_FONT);
+            g.drawString("Game Over!", WIDTH / 2 - 80, HEIGHT / 2);
+        }
+    }
+}
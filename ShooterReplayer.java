@@ -0,0 +1,191 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// re-runs ShooterRecorder logs as fast as possible with no rendering and checks they end the same way
+// usage: java ShooterReplayer <log.ssrp>... [-repeat N]
+// the exit code is 1 when any replay ends with a different score or state, so it can gate a build
+public class ShooterReplayer {
+
+    // what a replay produced next to what the log says it should produce
+    static class Result {
+        long ticks;
+        long expectedTicks;
+        long score;
+        long expectedScore;
+        long level;
+        long expectedLevel;
+        long hash;
+        long expectedHash;
+
+        boolean matches() {
+            return ticks == expectedTicks && score == expectedScore && level == expectedLevel && hash == expectedHash;
+        }
+    }
+
+    public static Result replay(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return replay(in);
+        }
+    }
+
+    public static Result replay(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != ShooterRecorder.MAGIC) {
+            throw new IOException("not a shape shooter replay");
+        }
+        int version = in.readUnsignedByte();
+        if (version < ShooterRecorder.OLDEST_VERSION || version > ShooterRecorder.VERSION) {
+            throw new IOException("replay version " + version + " can't be read, this build reads versions "
+                    + ShooterRecorder.OLDEST_VERSION + " to " + ShooterRecorder.VERSION);
+        }
+        long seed = in.readLong();
+        int obstacleCapacity = in.readInt();
+        double spawnChance = in.readDouble();
+        int waveSize = in.readInt();
+        int fireCooldownTicks = in.readInt();
+        int projectileLifetimeTicks = in.readInt();
+        boolean autoFire = in.readBoolean();
+        boolean pixelCollision = version >= 3 && in.readBoolean(); // box hits before version 3
+        int[][] shapeWeights = version >= 4 ? readShapeWeights(in) : null; // the default mix before version 4
+
+        ShapeShooterEngine engine = new ShapeShooterEngine(seed, ShapeShooterBatchRunner.SILENT, obstacleCapacity);
+        engine.getSpawner().setDensity(spawnChance, waveSize);
+        engine.setFireRate(fireCooldownTicks, projectileLifetimeTicks);
+        engine.setAutoFire(autoFire);
+        if (pixelCollision) {
+            engine.setObstacleMasks(shapeMasks());
+        }
+        if (shapeWeights != null) {
+            setShapeWeights(engine.getSpawner(), shapeWeights);
+        }
+        long runLength;
+        while ((runLength = readVarLong(in)) != 0) {
+            int input = (int) readVarLong(in);
+            for (long i = 0; i < runLength; i++) {
+                engine.tick(input);
+            }
+        }
+
+        Result result = new Result();
+        result.expectedTicks = readVarLong(in);
+        result.expectedScore = readVarLong(in);
+        result.expectedLevel = readVarLong(in);
+        result.expectedHash = in.readLong();
+        result.ticks = engine.getTickCount();
+        result.score = engine.getScore();
+        result.level = engine.getCurrentLevel();
+        result.hash = engine.stateHash();
+        return result;
+    }
+
+    private static int[][] readShapeWeights(DataInputStream in) throws IOException {
+        int levels = in.readUnsignedByte();
+        int shapeTypes = in.readUnsignedByte();
+        if (levels != LaneSpawner.MAX_LEVEL || shapeTypes != ShapeType.values().length) {
+            throw new IOException("replay has shape weights for " + levels + " levels and " + shapeTypes
+                    + " shapes, this build has " + LaneSpawner.MAX_LEVEL + " and " + ShapeType.values().length);
+        }
+        int[][] weights = new int[levels][shapeTypes];
+        for (int[] levelWeights : weights) {
+            for (int i = 0; i < shapeTypes; i++) {
+                levelWeights[i] = in.readInt();
+            }
+        }
+        return weights;
+    }
+
+    // weights go in before zeros are applied, so a level never has no shapes on the way
+    private static void setShapeWeights(LaneSpawner spawner, int[][] weights) throws IOException {
+        ShapeType[] shapeTypes = ShapeType.values();
+        try {
+            for (int level = 1; level <= weights.length; level++) {
+                for (ShapeType shapeType : shapeTypes) {
+                    if (weights[level - 1][shapeType.ordinal()] > 0) {
+                        spawner.setShapeWeight(level, shapeType, weights[level - 1][shapeType.ordinal()]);
+                    }
+                }
+                for (ShapeType shapeType : shapeTypes) {
+                    if (weights[level - 1][shapeType.ordinal()] <= 0) {
+                        spawner.setShapeWeight(level, shapeType, weights[level - 1][shapeType.ordinal()]);
+                    }
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            throw new IOException("replay has shape weights the game can't use: " + ex.getMessage());
+        }
+    }
+
+    // the same masks the game builds, loaded once and shared by every replay
+    private static CollisionMask[] masks;
+
+    private static synchronized CollisionMask[] shapeMasks() {
+        if (masks == null) {
+            masks = SpriteAtlas.load(null, ShapeShooterEngine.OBSTACLE_WIDTH, ShapeShooterEngine.OBSTACLE_HEIGHT,
+                    ShapeShooterEngine.PLAYER_WIDTH, ShapeShooterEngine.PLAYER_HEIGHT).getShapeMasks();
+        }
+        return masks;
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("replay ends in the middle of a number");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("bad number in replay");
+    }
+
+    public static void main(String[] args) throws IOException {
+        // flags first, so -repeat counts for every file wherever it is given
+        int repeat = 1;
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-repeat")) {
+                if (i + 1 == args.length) {
+                    System.err.println("-repeat needs a count");
+                    System.exit(2);
+                }
+                repeat = Integer.parseInt(args[++i]);
+            } else {
+                files.add(Path.of(args[i]));
+            }
+        }
+        boolean failed = false;
+        long totalTicks = 0;
+        long start = System.nanoTime();
+        for (Path file : files) {
+            for (int r = 0; r < repeat; r++) {
+                Result result = replay(file);
+                totalTicks += result.ticks;
+                if (!result.matches()) {
+                    failed = true;
+                    System.out.println(file + ": MISMATCH ticks " + result.ticks + "/" + result.expectedTicks
+                            + ", score " + result.score + "/" + result.expectedScore
+                            + ", level " + result.level + "/" + result.expectedLevel
+                            + ", state " + Long.toHexString(result.hash) + "/" + Long.toHexString(result.expectedHash));
+                    break;
+                } else if (r == 0) {
+                    System.out.println(file + ": ok, " + result.ticks + " ticks, score " + result.score);
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Replayed %d ticks in %.2f s (%.0f ticks/s)%n", totalTicks, seconds, totalTicks / seconds);
+        if (failed) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// authoritative shape shooter server: every connection gets its own engine, ticked here at the
+// game's fixed 20 ms step, and a delta snapshot after every tick (see ShooterProtocol)
+// one thread and one selector serve every client, sockets never block, and a client that cannot
+// keep up has snapshots skipped rather than slowing the tick down for everyone else
+// hits follow the sprite outlines like a local game, from masks built once out of the sprites;
+// -Dshooter.boxCollision=true goes back to box hits, the same flag the game takes
+// clients are not authenticated, so it listens on loopback only; -Dshooter.bind=<address> listens on
+// another interface for a trusted network
+// usage: java ShooterServer [port] [maxSessions]
+public class ShooterServer {
+    private static final int IN_BUFFER_BYTES = 1024;
+    private static final int OUT_BUFFER_BYTES = 32 * 1024; // a few worst-case snapshots
+    private static final long TICK_NANOS = ShapeShooterEngine.TICK_MILLIS * 1_000_000L;
+    private static final int MAX_CATCH_UP_TICKS = 5; // after a stall, skip ahead instead of bursting ticks
+    private static final int HELD_INPUT = ShapeShooterEngine.INPUT_LEFT | ShapeShooterEngine.INPUT_RIGHT
+            | ShapeShooterEngine.INPUT_FIRE_HELD;
+
+    // one connected player
+    private static class Session implements ShapeShooterEngine.Listener {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ShapeShooterEngine engine;
+        final ShooterProtocol.Snapshots snapshots =
+                new ShooterProtocol.Snapshots(ShooterProtocol.OBSTACLE_CAPACITY, ShapeShooterEngine.DEFAULT_PROJECTILE_CAPACITY);
+        final ByteBuffer in = ByteBuffer.allocateDirect(IN_BUFFER_BYTES);
+        final ByteBuffer out = ByteBuffer.allocateDirect(OUT_BUFFER_BYTES); // kept in write mode
+        int heldInput = 0; // arrows and fire held, from the latest INPUT
+        int pendingInput = 0; // one-shot bits (fire, strikes) since the last tick
+        int lastSeq = 0;
+
+        Session(SocketChannel channel, SelectionKey key, long seed, CollisionMask[] masks) {
+            this.channel = channel;
+            this.key = key;
+            this.engine = new ShapeShooterEngine(seed, this, ShooterProtocol.OBSTACLE_CAPACITY);
+            engine.setObstacleMasks(masks);
+        }
+
+        // engine callbacks go out as frames ahead of this tick's snapshot; they are dropped if the
+        // client is that far behind, its next snapshot still carries the full state
+        @Override
+        public void onMessage(String message) {
+            ShooterProtocol.writeMessage(out, message);
+        }
+
+        @Override
+        public void onCorrect() {
+            ShooterProtocol.writeCorrect(out);
+        }
+
+        @Override
+        public void onLevelChanged(int level) {
+            ShooterProtocol.writeLevel(out, level);
+        }
+    }
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final int maxSessions;
+    private final CollisionMask[] masks; // shared by every session, null for box hits
+    private final List<Session> sessions = new ArrayList<>();
+    private volatile boolean running = true;
+
+    // stats since the last report
+    private long ticks;
+    private long tickNanosTotal;
+    private long tickNanosMax;
+    private long bytesSent;
+    private long snapshotsSkipped;
+    private long ticksDropped;
+
+    // listens on loopback
+    public ShooterServer(int port, int maxSessions) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port, maxSessions);
+    }
+
+    public ShooterServer(InetAddress address, int port, int maxSessions) throws IOException {
+        this.maxSessions = maxSessions;
+        masks = Boolean.getBoolean("shooter.boxCollision") ? null
+                : SpriteAtlas.load(null, ShapeShooterEngine.OBSTACLE_WIDTH, ShapeShooterEngine.OBSTACLE_HEIGHT,
+                        ShapeShooterEngine.PLAYER_WIDTH, ShapeShooterEngine.PLAYER_HEIGHT).getShapeMasks();
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(address, port), 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    // serves until stop() is called
+    public void run() throws IOException {
+        long nextTick = System.nanoTime();
+        long nextReport = nextTick + 5_000_000_000L;
+        while (running) {
+            long wait = nextTick - System.nanoTime();
+            if (wait > 1_000_000L) {
+                selector.select(wait / 1_000_000L);
+            } else {
+                selector.selectNow();
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    accept();
+                    continue;
+                }
+                Session session = (Session) key.attachment();
+                try {
+                    if (key.isReadable()) {
+                        read(session);
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        flush(session);
+                    }
+                } catch (IOException ex) {
+                    close(session);
+                } catch (RuntimeException ex) {
+                    // whatever one client sent, the other players keep their games
+                    System.err.println("Dropping a shape shooter client: " + ex);
+                    close(session);
+                }
+            }
+
+            long now = System.nanoTime();
+            if (now - nextTick >= 0) {
+                tickAll();
+                nextTick += TICK_NANOS;
+                if (now - nextTick > MAX_CATCH_UP_TICKS * TICK_NANOS) {
+                    ticksDropped += (now - nextTick) / TICK_NANOS;
+                    nextTick = now;
+                }
+            }
+            if (now - nextReport >= 0) {
+                report();
+                nextReport = now + 5_000_000_000L;
+            }
+        }
+        for (Session session : new ArrayList<>(sessions)) {
+            close(session);
+        }
+        server.close();
+        selector.close();
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            if (sessions.size() >= maxSessions) {
+                channel.close();
+                continue;
+            }
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true); // snapshots are small and late ones are useless
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            long seed = ThreadLocalRandom.current().nextLong();
+            Session session = new Session(channel, key, seed, masks);
+            key.attach(session);
+            sessions.add(session);
+            ShooterProtocol.writeWelcome(session.out, seed, ShooterProtocol.OBSTACLE_CAPACITY,
+                    ShapeShooterEngine.DEFAULT_PROJECTILE_CAPACITY);
+        }
+    }
+
+    private void read(Session session) throws IOException {
+        if (session.channel.read(session.in) < 0) {
+            close(session);
+            return;
+        }
+        ByteBuffer in = session.in;
+        in.flip();
+        int length;
+        while ((length = ShooterProtocol.completeFrame(in)) > 0) {
+            int next = in.position() + length;
+            in.getInt();
+            if (in.get() == ShooterProtocol.INPUT) {
+                if (length < 4 + ShooterProtocol.INPUT_LENGTH) {
+                    throw new ProtocolException("INPUT frame of " + length + " bytes");
+                }
+                session.lastSeq = in.getInt();
+                int bits = in.getInt();
+                session.heldInput = bits & HELD_INPUT;
+                session.pendingInput |= bits & ~HELD_INPUT;
+            }
+            in.position(next); // unknown frames are skipped
+        }
+        in.compact();
+    }
+
+    private void tickAll() {
+        long start = System.nanoTime();
+        for (int i = 0; i < sessions.size(); i++) {
+            Session session = sessions.get(i);
+            session.engine.tick(session.heldInput | session.pendingInput);
+            session.pendingInput = 0;
+            if (!session.snapshots.write(session.out, session.engine, session.lastSeq)) {
+                snapshotsSkipped++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        ticks++;
+        tickNanosTotal += elapsed;
+        tickNanosMax = Math.max(tickNanosMax, elapsed);
+
+        for (int i = sessions.size() - 1; i >= 0; i--) {
+            Session session = sessions.get(i);
+            try {
+                flush(session);
+            } catch (IOException ex) {
+                close(session);
+            }
+        }
+    }
+
+    // writes as much as the socket takes now and waits for OP_WRITE for the rest
+    private void flush(Session session) throws IOException {
+        ByteBuffer out = session.out;
+        if (out.position() == 0) {
+            return;
+        }
+        out.flip();
+        bytesSent += session.channel.write(out);
+        out.compact();
+        int ops = out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (session.key.interestOps() != ops) {
+            session.key.interestOps(ops);
+        }
+    }
+
+    private void close(Session session) {
+        if (sessions.remove(session)) {
+            session.key.cancel();
+            try {
+                session.channel.close();
+            } catch (IOException ignored) {
+                // already gone
+            }
+        }
+    }
+
+    private void report() {
+        if (ticks == 0) {
+            return;
+        }
+        System.out.printf("%d sessions, tick avg %.3f ms max %.3f ms, %.1f KB/s out, %d snapshots skipped, %d ticks dropped%n",
+                sessions.size(), tickNanosTotal / 1e6 / ticks, tickNanosMax / 1e6, bytesSent / 1024.0 / 5,
+                snapshotsSkipped, ticksDropped);
+        ticks = 0;
+        tickNanosTotal = 0;
+        tickNanosMax = 0;
+        bytesSent = 0;
+        snapshotsSkipped = 0;
+        ticksDropped = 0;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : ShooterProtocol.DEFAULT_PORT;
+        int maxSessions = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        InetAddress address = InetAddress.getByName(System.getProperty("shooter.bind", InetAddress.getLoopbackAddress().getHostAddress()));
+        ShooterServer server = new ShooterServer(address, port, maxSessions);
+        System.out.println("Shape shooter server on " + address.getHostAddress() + " port " + server.getPort() + ", up to " + maxSessions + " sessions, "
+                + (server.masks != null ? "pixel" : "box") + " collision");
+        server.run();
+    }
+}
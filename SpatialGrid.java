@@ -0,0 +1,153 @@
+import java.util.Arrays;
+
+// uniform grid over the play field used to find obstacles near a box without checking all of them
+// each slot is linked into the cell under its top-left corner, the links live in int arrays so
+// inserting, moving and removing never allocate
+public class SpatialGrid {
+    private static final int NONE = -1;
+
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+    private final int itemWidth; // every item in the grid has the same size
+    private final int itemHeight;
+    private final int[] cellHeads; // first slot in each cell, or NONE
+    private final int[] next; // next slot in the same cell
+    private final int[] prev; // previous slot in the same cell
+    private final int[] cellOf; // cell each slot is linked into
+
+    public SpatialGrid(int capacity, int width, int height, int cellSize, int itemWidth, int itemHeight) {
+        this.cellSize = cellSize;
+        this.columns = (width + cellSize - 1) / cellSize;
+        this.rows = (height + cellSize - 1) / cellSize;
+        this.itemWidth = itemWidth;
+        this.itemHeight = itemHeight;
+        cellHeads = new int[columns * rows];
+        next = new int[capacity];
+        prev = new int[capacity];
+        cellOf = new int[capacity];
+        clear();
+    }
+
+    public void clear() {
+        Arrays.fill(cellHeads, NONE);
+    }
+
+    public void insert(int slot, int x, int y) {
+        link(slot, cellIndex(x, y));
+    }
+
+    // call after an item moves, it is only relinked when it crosses into another cell
+    public void update(int slot, int x, int y) {
+        int cell = cellIndex(x, y);
+        if (cell != cellOf[slot]) {
+            unlink(slot);
+            link(slot, cell);
+        }
+    }
+
+    // cell an item at (x, y) belongs in, for staging moves made off the grid (see ObstacleStore.shiftDown)
+    public int cellFor(int x, int y) {
+        return cellIndex(x, y);
+    }
+
+    // links the slot into a cell found with cellFor(), only relinking when the cell changed
+    public void moveToCell(int slot, int cell) {
+        if (cell != cellOf[slot]) {
+            unlink(slot);
+            link(slot, cell);
+        }
+    }
+
+    public void remove(int slot) {
+        unlink(slot);
+    }
+
+    // hands the links of slot from over to slot to, used when a store swap-removes
+    public void moveSlot(int from, int to) {
+        int cell = cellOf[from];
+        int before = prev[from];
+        int after = next[from];
+        if (before == NONE) {
+            cellHeads[cell] = to;
+        } else {
+            next[before] = to;
+        }
+        if (after != NONE) {
+            prev[after] = to;
+        }
+        prev[to] = before;
+        next[to] = after;
+        cellOf[to] = cell;
+    }
+
+    // lowest slot whose item overlaps the box, or -1; positions come from the store that owns the slots
+    public int findOverlap(int x, int y, int width, int height, ObstacleStore store) {
+        return findOverlap(x, y, width, height, store, null, null);
+    }
+
+    // same, but a box overlap only counts when boxMask and the item's mask (by shape code) share a
+    // solid pixel; itemMasks of null, or a null entry, keeps the plain box test for those items
+    public int findOverlap(int x, int y, int width, int height, ObstacleStore store,
+                           CollisionMask boxMask, CollisionMask[] itemMasks) {
+        // an item can reach into the box from up to one item size above or to the left
+        int firstColumn = column(x - itemWidth + 1);
+        int lastColumn = column(x + width - 1);
+        int firstRow = row(y - itemHeight + 1);
+        int lastRow = row(y + height - 1);
+        int found = NONE;
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                for (int slot = cellHeads[r * columns + c]; slot != NONE; slot = next[slot]) {
+                    if (found != NONE && slot > found) {
+                        continue; // already have a lower slot
+                    }
+                    int itemX = store.getX(slot);
+                    int itemY = store.getY(slot);
+                    if (x < itemX + itemWidth && itemX < x + width && y < itemY + itemHeight && itemY < y + height
+                            && store.masksOverlap(slot, x, y, boxMask, itemMasks)) {
+                        found = slot;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private void link(int slot, int cell) {
+        int head = cellHeads[cell];
+        next[slot] = head;
+        prev[slot] = NONE;
+        if (head != NONE) {
+            prev[head] = slot;
+        }
+        cellHeads[cell] = slot;
+        cellOf[slot] = cell;
+    }
+
+    private void unlink(int slot) {
+        int before = prev[slot];
+        int after = next[slot];
+        if (before == NONE) {
+            cellHeads[cellOf[slot]] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != NONE) {
+            prev[after] = before;
+        }
+    }
+
+    private int cellIndex(int x, int y) {
+        return row(y) * columns + column(x);
+    }
+
+    // positions outside the field are clamped into the edge cells
+    private int column(int x) {
+        return Math.max(0, Math.min(columns - 1, Math.floorDiv(x, cellSize)));
+    }
+
+    private int row(int y) {
+        return Math.max(0, Math.min(rows - 1, Math.floorDiv(y, cellSize)));
+    }
+}
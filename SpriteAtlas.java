@@ -0,0 +1,151 @@
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// every sprite the shape shooter draws, loaded in parallel and scaled once to the size it is drawn at
+// images are copied into surfaces compatible with the screen so blits can stay on the accelerated path
+public class SpriteAtlas {
+    public static final String POINTER_FILE = "pointer.png";
+    private static final String[] SHAPE_FILES = new String[ShapeType.values().length]; // indexed by ShapeType ordinal
+
+    static {
+        SHAPE_FILES[ShapeType.RECTANGLE.ordinal()] = "rectangle.png";
+        SHAPE_FILES[ShapeType.CIRCLE.ordinal()] = "circle.png";
+        SHAPE_FILES[ShapeType.TRIANGLE.ordinal()] = "triangle.png";
+        SHAPE_FILES[ShapeType.TRAPEZOID.ordinal()] = "Trapezoid2.png";
+        SHAPE_FILES[ShapeType.PENTAGON.ordinal()] = "Pentagon.png";
+        SHAPE_FILES[ShapeType.HEXAGON.ordinal()] = "Hexagon.png";
+    }
+
+    private final BufferedImage[] shapeSprites;
+    private final CollisionMask[] shapeMasks; // built from the scaled sprites, so they match what is drawn
+    private final BufferedImage pointer;
+    private final List<String> missing;
+
+    private SpriteAtlas(BufferedImage[] shapeSprites, BufferedImage pointer, List<String> missing) {
+        this.shapeSprites = shapeSprites;
+        this.shapeMasks = new CollisionMask[shapeSprites.length];
+        for (int i = 0; i < shapeSprites.length; i++) {
+            shapeMasks[i] = CollisionMask.fromAlpha(shapeSprites[i]);
+        }
+        this.pointer = pointer;
+        this.missing = missing;
+    }
+
+    // loads every sprite at once; gc may be null when there is no screen (headless runs)
+    public static SpriteAtlas load(GraphicsConfiguration gc, int spriteWidth, int spriteHeight,
+                                   int pointerWidth, int pointerHeight) {
+        List<CompletableFuture<BufferedImage>> shapeLoads = new ArrayList<>();
+        for (String file : SHAPE_FILES) {
+            shapeLoads.add(CompletableFuture.supplyAsync(() -> read(file)));
+        }
+        CompletableFuture<BufferedImage> pointerLoad = CompletableFuture.supplyAsync(() -> read(POINTER_FILE));
+
+        List<String> missing = new ArrayList<>();
+        BufferedImage[] shapeSprites = new BufferedImage[SHAPE_FILES.length];
+        for (int i = 0; i < SHAPE_FILES.length; i++) {
+            BufferedImage image = shapeLoads.get(i).join();
+            if (image == null) {
+                missing.add(SHAPE_FILES[i]);
+            }
+            shapeSprites[i] = toCompatible(gc, image, spriteWidth, spriteHeight);
+        }
+        BufferedImage pointerImage = pointerLoad.join();
+        if (pointerImage == null) {
+            missing.add(POINTER_FILE);
+        }
+        BufferedImage pointer = toCompatible(gc, pointerImage, pointerWidth, pointerHeight);
+
+        if (!missing.isEmpty()) {
+            System.err.println("SpriteAtlas: missing sprites " + missing
+                    + " (looked on the classpath and in " + new File("").getAbsolutePath() + "), drawing placeholders");
+        }
+        return new SpriteAtlas(shapeSprites, pointer, Collections.unmodifiableList(missing));
+    }
+
+    // screen config for compatible images, or null when running headless
+    public static GraphicsConfiguration defaultConfiguration() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return null;
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+    }
+
+    public BufferedImage getShapeSprite(int shapeCode) {
+        return shapeSprites[shapeCode];
+    }
+
+    public BufferedImage getShapeSprite(ShapeType shapeType) {
+        return shapeSprites[shapeType.ordinal()];
+    }
+
+    // collision masks by ShapeType ordinal, shared, do not change them
+    public CollisionMask[] getShapeMasks() {
+        return shapeMasks;
+    }
+
+    public BufferedImage getPointer() {
+        return pointer;
+    }
+
+    // file names that could not be loaded, empty when everything was found
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    // reads from the classpath first, then from the working directory like the game always did
+    private static BufferedImage read(String file) {
+        try {
+            URL resource = SpriteAtlas.class.getResource("/" + file);
+            if (resource != null) {
+                try (InputStream in = resource.openStream()) {
+                    return ImageIO.read(in);
+                }
+            }
+            File onDisk = new File(file);
+            if (onDisk.isFile()) {
+                return ImageIO.read(onDisk);
+            }
+        } catch (IOException ex) {
+            System.err.println("SpriteAtlas: could not read " + file + ": " + ex.getMessage());
+        }
+        return null;
+    }
+
+    // scales the image once into a translucent surface made for this screen
+    private static BufferedImage toCompatible(GraphicsConfiguration gc, BufferedImage source, int width, int height) {
+        BufferedImage target = gc != null
+                ? gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = target.createGraphics();
+        try {
+            if (source != null) {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(source, 0, 0, width, height, null);
+            } else {
+                // placeholder so a missing file shows up on screen instead of an invisible obstacle
+                g.setColor(Color.MAGENTA);
+                g.fillRect(0, 0, width, height);
+                g.setColor(Color.BLACK);
+                g.drawRect(0, 0, width - 1, height - 1);
+            }
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,46 @@
+import bench.ExpressionTarget;
+
+public class ExpressionTargetImpl implements ExpressionTarget {
+    private String[] texts;
+    private String[] typed;
+    private ExpressionCompiler.Evaluator[] compiled;
+    private ExpressionCompiler compiler;
+
+    @Override
+    public void setUp(int questions, int maxDepth, long seed, int cacheCapacity) {
+        QuestionGenerator generator = new QuestionGenerator(seed);
+        generator.setOperandRange(1, 50);
+        generator.setMaxDepth(maxDepth);
+        generator.setDifficultyCurve(QuestionGenerator.constant(1));
+        texts = new String[questions];
+        typed = new String[questions];
+        compiled = new ExpressionCompiler.Evaluator[questions];
+        for (int i = 0; i < questions; i++) {
+            QuestionGenerator.Question question = generator.next();
+            texts[i] = question.text;
+            typed[i] = " " + question.answer + ".0"; // needs the numeric comparison to count as right
+            compiled[i] = ExpressionCompiler.parse(question.text);
+        }
+        compiler = new ExpressionCompiler(cacheCapacity);
+    }
+
+    @Override
+    public double parseAndEvaluate(int question) {
+        return ExpressionCompiler.parse(texts[question]).evaluate();
+    }
+
+    @Override
+    public double compileAndEvaluate(int question) {
+        return compiler.evaluate(texts[question]);
+    }
+
+    @Override
+    public double evaluateCompiled(int question) {
+        return compiled[question].evaluate();
+    }
+
+    @Override
+    public boolean checkAnswer(int question) {
+        return ExpressionCompiler.matches(typed[question], compiler.evaluate(texts[question]));
+    }
+}
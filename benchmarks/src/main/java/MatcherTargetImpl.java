@@ -0,0 +1,32 @@
+import bench.MatcherTarget;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+public class MatcherTargetImpl implements MatcherTarget {
+    private ShapeMatcherScene scene;
+    private BufferedImage panel;
+    private Graphics2D graphics;
+
+    @Override
+    public void setUp(int difficulty, long seed, int cacheCapacity, boolean palette) {
+        ShapeSpriteCache sprites = new ShapeSpriteCache(null, cacheCapacity);
+        scene = new ShapeMatcherScene(ShapeCatalog.standard().forDifficulty(difficulty), sprites, new Random(seed), palette);
+        scene.pickRandomShape();
+        panel = ShapeMatcherScene.newPanelImage();
+        graphics = panel.createGraphics();
+    }
+
+    @Override
+    public int pickRandomShape() {
+        return scene.pickRandomShape().id;
+    }
+
+    @Override
+    public int paint() {
+        ShapeMatcherScene.paintBackground(graphics);
+        scene.paint(graphics);
+        return panel.getRGB(ShapeMatcherScene.SHAPE_X + 50, ShapeMatcherScene.SHAPE_Y + 50);
+    }
+}
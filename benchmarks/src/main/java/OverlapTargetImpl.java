@@ -0,0 +1,50 @@
+import bench.OverlapTarget;
+
+import java.util.Random;
+
+public class OverlapTargetImpl implements OverlapTarget {
+    private static final int QUERIES = 1024;
+    private static final ShapeType[] SHAPES = {ShapeType.RECTANGLE, ShapeType.CIRCLE, ShapeType.TRIANGLE};
+
+    private ObstacleStore withGrid;
+    private ObstacleStore withoutGrid;
+    private final int[] queryX = new int[QUERIES];
+    private final int[] queryY = new int[QUERIES];
+
+    @Override
+    public void setUp(int obstacles, long seed) {
+        int capacity = Math.max(ShapeShooterEngine.DEFAULT_OBSTACLE_CAPACITY, obstacles);
+        SpatialGrid grid = new SpatialGrid(capacity, ShapeShooterEngine.WIDTH,
+                ShapeShooterEngine.HEIGHT + ShapeShooterEngine.OBSTACLE_HEIGHT, ShapeShooterEngine.GRID_CELL_SIZE,
+                ShapeShooterEngine.OBSTACLE_WIDTH, ShapeShooterEngine.OBSTACLE_HEIGHT);
+        withGrid = new ObstacleStore(capacity, grid);
+        withoutGrid = new ObstacleStore(capacity);
+        Random random = new Random(seed);
+        for (int i = 0; i < obstacles; i++) {
+            int x = random.nextInt(ShapeShooterEngine.WIDTH - ShapeShooterEngine.OBSTACLE_WIDTH + 1);
+            int y = random.nextInt(ShapeShooterEngine.HEIGHT);
+            ShapeType shape = SHAPES[random.nextInt(SHAPES.length)];
+            withGrid.add(x, y, shape);
+            withoutGrid.add(x, y, shape);
+        }
+        for (int i = 0; i < QUERIES; i++) { // obstacle-sized boxes anywhere, like a new obstacle looking for room
+            queryX[i] = random.nextInt(ShapeShooterEngine.WIDTH - ShapeShooterEngine.OBSTACLE_WIDTH + 1);
+            queryY[i] = random.nextInt(ShapeShooterEngine.HEIGHT);
+        }
+    }
+
+    @Override
+    public int findWithGrid(int query) {
+        return withGrid.findOverlap(queryX[query], queryY[query], ShapeShooterEngine.OBSTACLE_WIDTH, ShapeShooterEngine.OBSTACLE_HEIGHT);
+    }
+
+    @Override
+    public int findByScan(int query) {
+        return withoutGrid.findOverlap(queryX[query], queryY[query], ShapeShooterEngine.OBSTACLE_WIDTH, ShapeShooterEngine.OBSTACLE_HEIGHT);
+    }
+
+    @Override
+    public int queries() {
+        return QUERIES;
+    }
+}
@@ -0,0 +1,45 @@
+import bench.QuizTarget;
+
+import java.util.Iterator;
+
+public class QuizTargetImpl implements QuizTarget {
+    private String[] answers; // typed the way a player might, so the numeric comparison has work to do
+    private QuizSession session;
+
+    @Override
+    public void setUp(int questions, long seed) {
+        QuestionGenerator generator = new QuestionGenerator(seed);
+        generator.setMaxDepth(2);
+        generator.setDifficultyCurve(QuestionGenerator.constant(1));
+        String[] texts = new String[questions];
+        answers = new String[questions];
+        for (int i = 0; i < questions; i++) {
+            QuestionGenerator.Question question = generator.next();
+            texts[i] = question.text;
+            answers[i] = " " + question.answer + ".0";
+        }
+        // the questions go round forever, so the compiler's cache sees them again like a shared question set
+        Iterator<String> cycle = new Iterator<String>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public String next() {
+                String text = texts[next];
+                next = (next + 1) % texts.length;
+                return text;
+            }
+        };
+        session = new QuizSession(cycle, new ExpressionCompiler(1024));
+    }
+
+    @Override
+    public boolean answer(boolean right) {
+        String typed = answers[session.getAnswered() % answers.length];
+        return session.answer(right ? typed : "-1");
+    }
+}
@@ -0,0 +1,72 @@
+import bench.ShooterTarget;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+public class ShooterTargetImpl implements ShooterTarget {
+    private static final ShapeType[] SHAPES = {ShapeType.RECTANGLE, ShapeType.CIRCLE, ShapeType.TRIANGLE};
+
+    private ShapeShooterEngine engine;
+    private ShooterRenderer renderer;
+    private BufferedImage frame;
+    private Graphics2D graphics;
+    private Random random;
+    private int obstacles;
+    private int input;
+
+    @Override
+    public void setUp(int obstacles, long seed, boolean masks) {
+        this.obstacles = obstacles;
+        this.random = new Random(seed);
+        SpriteAtlas atlas = SpriteAtlas.load(null, ShapeShooterEngine.OBSTACLE_WIDTH, ShapeShooterEngine.OBSTACLE_HEIGHT,
+                ShapeShooterEngine.PLAYER_WIDTH, ShapeShooterEngine.PLAYER_HEIGHT);
+        engine = new ShapeShooterEngine(seed, ShapeShooterBatchRunner.SILENT,
+                Math.max(ShapeShooterEngine.DEFAULT_OBSTACLE_CAPACITY, obstacles * 2));
+        engine.getSpawner().setDensity(0, 0); // the count is held by topUp() instead
+        if (masks) {
+            engine.setObstacleMasks(atlas.getShapeMasks());
+        }
+        engine.setFireRate(2, 0);
+        engine.setAutoFire(true);
+        ObstacleStore store = engine.getObstacles();
+        for (int i = 0; i < obstacles; i++) {
+            store.add(randomX(), random.nextInt(ShapeShooterEngine.HEIGHT), SHAPES[random.nextInt(SHAPES.length)]);
+        }
+        renderer = new ShooterRenderer(atlas, new NotificationQueue());
+        frame = new BufferedImage(ShooterRenderer.WIDTH, ShooterRenderer.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        graphics = frame.createGraphics();
+        for (int i = 0; i < 100; i++) {
+            tick(); // fill the screen with projectiles and let the first prompt appear
+        }
+    }
+
+    @Override
+    public int tick() {
+        // sweeps the player left and right so shots go up every lane
+        int x = engine.getPlayerX();
+        if (x <= 0) {
+            input = ShapeShooterEngine.INPUT_RIGHT;
+        } else if (x >= ShapeShooterEngine.WIDTH - ShapeShooterEngine.PLAYER_WIDTH) {
+            input = ShapeShooterEngine.INPUT_LEFT;
+        } else if (input == 0) {
+            input = ShapeShooterEngine.INPUT_RIGHT;
+        }
+        engine.tick(input | ShapeShooterEngine.INPUT_FIRE_HELD);
+        ObstacleStore store = engine.getObstacles();
+        while (store.size() < obstacles) {
+            store.add(randomX(), 0, SHAPES[random.nextInt(SHAPES.length)]);
+        }
+        return store.size();
+    }
+
+    @Override
+    public int draw() {
+        renderer.draw(graphics, engine, 0.5, null);
+        return frame.getRGB(engine.getPlayerX(), engine.getPlayerY());
+    }
+
+    private int randomX() {
+        return random.nextInt(ShapeShooterEngine.WIDTH - ShapeShooterEngine.OBSTACLE_WIDTH + 1);
+    }
+}
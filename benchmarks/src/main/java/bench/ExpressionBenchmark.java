@@ -0,0 +1,68 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// parse plus evaluate throughput of ExpressionCompiler on generated quiz questions
+// cacheCapacity below the question count makes compileAndEvaluate miss, above it makes it hit
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+    private static final int QUESTIONS = 4096; // a power of two, so the next index is a mask
+
+    @Param({"1", "3"})
+    public int maxDepth;
+
+    @Param({"8192"})
+    public int cacheCapacity;
+
+    private ExpressionTarget target;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        target = Targets.load(ExpressionTarget.class);
+        target.setUp(QUESTIONS, maxDepth, 42L, cacheCapacity);
+    }
+
+    private int nextQuestion() {
+        next = (next + 1) & (QUESTIONS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public double parseAndEvaluate() {
+        return target.parseAndEvaluate(nextQuestion());
+    }
+
+    @Benchmark
+    public double compileAndEvaluate() {
+        return target.compileAndEvaluate(nextQuestion());
+    }
+
+    @Benchmark
+    public double evaluateCompiled() {
+        return target.evaluateCompiled(nextQuestion());
+    }
+
+    @Benchmark
+    public boolean checkAnswer() {
+        return target.checkAnswer(nextQuestion());
+    }
+}
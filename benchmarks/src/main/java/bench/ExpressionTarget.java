@@ -0,0 +1,18 @@
+package bench;
+
+// ExpressionCompiler over a fixed set of generated questions, picked by index
+public interface ExpressionTarget {
+    void setUp(int questions, int maxDepth, long seed, int cacheCapacity);
+
+    // text to evaluator with no cache, then evaluated
+    double parseAndEvaluate(int question);
+
+    // through the compiler's cache, as QuizController does
+    double compileAndEvaluate(int question);
+
+    // an evaluator compiled beforehand
+    double evaluateCompiled(int question);
+
+    // a typed answer checked against the question, the whole of an answer check
+    boolean checkAnswer(int question);
+}
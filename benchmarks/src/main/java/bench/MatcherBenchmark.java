@@ -0,0 +1,55 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// the shape matcher's drawRandomShape() and paintComponent() work: picking a shape and color through
+// the sprite cache, and blitting it onto a cleared panel-sized image
+// a cache of 16 can't hold every shape and color pair, so pickRandomShape then renders most of the time;
+// without the palette (the game's default) colors are any RGB and nearly every pick renders
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class MatcherBenchmark {
+    @Param({"0", "2"})
+    public int difficulty;
+
+    @Param({"16", "256"})
+    public int cacheCapacity;
+
+    @Param({"true", "false"})
+    public boolean palette;
+
+    private MatcherTarget target;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        target = Targets.load(MatcherTarget.class);
+        target.setUp(difficulty, 42L, cacheCapacity, palette);
+    }
+
+    @Benchmark
+    public int pickRandomShape() {
+        return target.pickRandomShape();
+    }
+
+    @Benchmark
+    public int paint() {
+        return target.paint();
+    }
+}
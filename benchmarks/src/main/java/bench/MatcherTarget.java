@@ -0,0 +1,13 @@
+package bench;
+
+// the shape matcher panel's round change (GamePanel.drawRandomShape()) and its paint, offscreen
+public interface MatcherTarget {
+    // palette picks colors from ShapeMatcherScene.PALETTE_SIZE hues instead of any RGB
+    void setUp(int difficulty, long seed, int cacheCapacity, boolean palette);
+
+    // picks the next shape and color, rendering the sprite if the cache doesn't have it; returns its id
+    int pickRandomShape();
+
+    // paints the panel as paintComponent does into an offscreen image; returns a pixel
+    int paint();
+}
@@ -0,0 +1,53 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// one obstacle-sized overlap search, the inner loop of spawning and of every hit test, through the
+// spatial grid the engine uses and by scanning every obstacle as the original spawn loop did
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class OverlapBenchmark {
+    @Param({"50", "500", "2000"})
+    public int obstacles;
+
+    private OverlapTarget target;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        target = Targets.load(OverlapTarget.class);
+        target.setUp(obstacles, 42L);
+    }
+
+    private int nextQuery() {
+        next = next + 1 == target.queries() ? 0 : next + 1;
+        return next;
+    }
+
+    @Benchmark
+    public int grid() {
+        return target.findWithGrid(nextQuery());
+    }
+
+    @Benchmark
+    public int scan() {
+        return target.findByScan(nextQuery());
+    }
+}
@@ -0,0 +1,14 @@
+package bench;
+
+// the obstacle overlap search that spawning and hit tests run, through the spatial grid and as a
+// plain scan of every obstacle, which is what the spawn loop used to do
+public interface OverlapTarget {
+    void setUp(int obstacles, long seed);
+
+    // slot of an obstacle overlapping query box i, or -1
+    int findWithGrid(int query);
+
+    int findByScan(int query);
+
+    int queries();
+}
@@ -0,0 +1,47 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// QuizController.checkAnswer() without its labels: a typed answer checked through QuizSession and
+// the compiler's cache, right answers moving on to the next question
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuizBenchmark {
+    @Param({"512"})
+    public int questions;
+
+    private QuizTarget target;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        target = Targets.load(QuizTarget.class);
+        target.setUp(questions, 42L);
+    }
+
+    @Benchmark
+    public boolean checkRightAnswer() {
+        return target.answer(true);
+    }
+
+    @Benchmark
+    public boolean checkWrongAnswer() {
+        return target.answer(false);
+    }
+}
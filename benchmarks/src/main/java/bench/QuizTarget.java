@@ -0,0 +1,9 @@
+package bench;
+
+// a quiz answer check as QuizController.checkAnswer() does it, through QuizSession without the labels
+public interface QuizTarget {
+    void setUp(int questions, long seed);
+
+    // answers the current question; right ones move on through the questions, round and round
+    boolean answer(boolean right);
+}
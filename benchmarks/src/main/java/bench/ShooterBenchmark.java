@@ -0,0 +1,50 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// ShapeMatching's update (one engine tick) and draw (ShooterRenderer into a BufferedImage) at set
+// obstacle counts; the count is held by putting shot and fallen obstacles back at the top
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ShooterBenchmark {
+    @Param({"50", "500", "2000"})
+    public int obstacles;
+
+    @Param({"true"})
+    public boolean masks;
+
+    private ShooterTarget target;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        target = Targets.load(ShooterTarget.class);
+        target.setUp(obstacles, 42L, masks);
+    }
+
+    @Benchmark
+    public int update() {
+        return target.tick();
+    }
+
+    @Benchmark
+    public int draw() {
+        return target.draw();
+    }
+}
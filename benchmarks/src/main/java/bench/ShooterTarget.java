@@ -0,0 +1,13 @@
+package bench;
+
+// a shape shooter engine held at a fixed number of obstacles, and the renderer that draws it
+public interface ShooterTarget {
+    void setUp(int obstacles, long seed, boolean masks);
+
+    // one engine tick with fire held, then the obstacles that fell off or were shot are put back at the
+    // top so the count stays where it was set; returns the obstacle count
+    int tick();
+
+    // one frame of ShooterRenderer into an offscreen image; returns a pixel so the work can't be dropped
+    int draw();
+}
@@ -0,0 +1,19 @@
+package bench;
+
+// the games are in the default package, which code in a package can't name and JMH won't benchmark,
+// so each benchmark talks to an interface here and the class behind it sits next to this package
+// in the default package, named after the interface with Impl on the end; it is created once per
+// trial, so the interface call is monomorphic and JIT-inlined like a direct call
+public final class Targets {
+    private Targets() {
+    }
+
+    public static <T> T load(Class<T> type) {
+        String name = type.getSimpleName() + "Impl";
+        try {
+            return type.cast(Class.forName(name).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("no benchmark target " + name + " for " + type.getName(), e);
+        }
+    }
+}